@@ -0,0 +1,119 @@
+package com.dev.graphservice.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load benchmark for the follower / following reads against a running graph-service, used to
+ * compare the blocking and the virtual-thread request modes. Lives in src/bench/java and only
+ * compiles under the {@code bench} profile, it is not part of the unit tests:
+ * <pre>
+ *   ./mvnw -Pbench compile exec:java -Dexec.args="http://localhost:8992 &lt;userId&gt; 5000 20"
+ * </pre>
+ * Arguments: base url, user id, concurrent clients (default 5000), requests per client (default 20).
+ * <p>
+ * Run it once per mode against the same data set and compare the throughput, p99 and error counts
+ * printed per endpoint:
+ * <ul>
+ *   <li>blocking: start the service with {@code GRAPH_VIRTUAL_THREADS=false}, requests queue on the
+ *   Tomcat pool and show up as latency and timeouts.</li>
+ *   <li>virtual threads: start it with {@code GRAPH_VIRTUAL_THREADS=true}, which also enables
+ *   {@code DatabaseConcurrencyLimiter}. At most {@code DB_MAX_CONCURRENT} requests reach the store,
+ *   the rest wait up to {@code DB_ACQUIRE_TIMEOUT} and are counted as errors (503) after that.</li>
+ * </ul>
+ */
+public class FollowReadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8992";
+        String userId = args.length > 1 ? args[1] : "00000000-0000-0000-0000-000000000001";
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        int requestsPerClient = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        for (String endpoint : List.of("followers", "followings")) {
+            URI uri = URI.create(baseUrl + "/api/users/" + endpoint + "?userId=" + userId);
+            // Warm-up: JIT, connection pools and caches on both sides
+            run(http, uri, Math.min(clients, 100), 5);
+            Result result = run(http, uri, clients, requestsPerClient);
+            System.out.printf("%-11s clients=%d requests=%d ok=%d errors=%d throughput=%.0f req/s p50=%.1f ms p99=%.1f ms max=%.1f ms%n",
+                    endpoint, clients, result.latenciesNanos.length + result.errors, result.latenciesNanos.length,
+                    result.errors, result.throughput(), result.percentileMs(50), result.percentileMs(99),
+                    result.percentileMs(100));
+        }
+    }
+
+    private static Result run(HttpClient http, URI uri, int clients, int requestsPerClient) throws InterruptedException {
+        List<long[]> perClient = new ArrayList<>(clients);
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clients);
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long[] latencies = new long[requestsPerClient];
+                Arrays.fill(latencies, -1);
+                perClient.add(latencies);
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < requestsPerClient; i++) {
+                            long t0 = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() == 200) {
+                                    latencies[i] = System.nanoTime() - t0;
+                                } else {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            long t0 = System.nanoTime();
+            start.countDown();
+            done.await();
+            long elapsed = System.nanoTime() - t0;
+
+            long[] all = perClient.stream().flatMapToLong(Arrays::stream).filter(l -> l >= 0).sorted().toArray();
+            return new Result(all, errors.get(), elapsed);
+        }
+    }
+
+    private record Result(long[] latenciesNanos, int errors, long elapsedNanos) {
+
+        double throughput() {
+            return latenciesNanos.length / (elapsedNanos / 1e9);
+        }
+
+        double percentileMs(int percentile) {
+            if (latenciesNanos.length == 0) {
+                return 0;
+            }
+            int idx = (int) Math.ceil(percentile / 100.0 * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, idx)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.dev.graphservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded user UUID to graph vertex id cache, so follow, unfollow and follower lookups do not
+ * hydrate a whole {@code User} just to read its id. Vertex ids never change for a live user,
+ * the TTL only bounds how long an entry can outlive a delete that bypassed {@link #invalidate}.
+ * Hit rate, size and evictions are published as {@code cache.*} metrics tagged {@code cache=vertexIds}.
+ */
+@Component
+public class VertexIdCache {
+
+    private final Cache<UUID, Object> cache;
+
+    public VertexIdCache(MeterRegistry meterRegistry,
+                         @Value("${app.vertex-id-cache.max-size:100000}") long maxSize,
+                         @Value("${app.vertex-id-cache.ttl:30m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "vertexIds");
+    }
+
+    /**
+     * Returns the cached vertex id, resolving and caching it through {@code loader} on a miss.
+     * Loader exceptions propagate and nothing is cached.
+     */
+    public Object get(UUID userId, Function<UUID, Object> loader) {
+        return cache.get(userId, loader);
+    }
+
+    public void put(UUID userId, Object vertexId) {
+        if (userId != null && vertexId != null) {
+            cache.put(userId, vertexId);
+        }
+    }
+
+    public void invalidate(UUID userId) {
+        cache.invalidate(userId);
+    }
+}
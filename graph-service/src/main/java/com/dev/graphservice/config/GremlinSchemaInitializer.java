@@ -0,0 +1,57 @@
+package com.dev.graphservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tinkerpop.gremlin.driver.Client;
+import org.apache.tinkerpop.gremlin.driver.Result;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Applies {@code schema/janusgraph-schema.groovy} through the JanusGraph management API. Schema
+ * changes cannot be expressed as bytecode traversals, so the script is submitted as a Groovy
+ * request and is opt-in for servers that allow script evaluation.
+ * Fails the startup when the userId or email index does not end up ENABLED.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "graph.impl", havingValue = "gremlin", matchIfMissing = true)
+@RequiredArgsConstructor
+public class GremlinSchemaInitializer implements ApplicationRunner {
+
+    private static final String SCRIPT = "schema/janusgraph-schema.groovy";
+
+    private final Client gremlinClient;
+
+    @Value("${graph.schema.janusgraph-management:false}")
+    private boolean managementEnabled;
+
+    @Value("${graph.schema.verify-plans:true}")
+    private boolean verifyPlans;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!managementEnabled) {
+            log.info("JanusGraph schema management disabled, apply {} manually for indexed User lookups", SCRIPT);
+            return;
+        }
+
+        String script = new ClassPathResource(SCRIPT).getContentAsString(StandardCharsets.UTF_8);
+        List<Result> statuses = gremlinClient.submit(script).all().join();
+        for (Result status : statuses) {
+            String indexStatus = status.getString();
+            log.info("JanusGraph index status {}", indexStatus);
+            if (verifyPlans && !indexStatus.endsWith(":ENABLED")) {
+                throw new IllegalStateException("JanusGraph index is not enabled, User lookups would scan: " + indexStatus);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.dev.graphservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.summary.Plan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the constraints and indexes the User lookups rely on and checks at startup that the
+ * planner actually seeks them. Without them every {@code findByProperty} on userId or email is a
+ * label scan, so a missing index fails the startup instead of degrading silently.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "graph.impl", havingValue = "neo4j")
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+@RequiredArgsConstructor
+public class Neo4jSchemaInitializer implements ApplicationRunner {
+
+    private static final List<String> SCHEMA = List.of(
+            "CREATE CONSTRAINT user_user_id_unique IF NOT EXISTS FOR (u:User) REQUIRE u.userId IS UNIQUE",
+            "CREATE INDEX user_email IF NOT EXISTS FOR (u:User) ON (u.email)",
+            "CREATE CONSTRAINT fanout_checkpoint_post_id_unique IF NOT EXISTS FOR (c:FanoutCheckpoint) REQUIRE c.postId IS UNIQUE"
+    );
+
+    // Same shape as Neo4jGraphRepository.findByProperty, which every follow, fan-out and profile read starts with
+    private static final List<String> HOT_QUERIES = List.of(
+            "MATCH (n:User) WHERE n.userId = $value RETURN n LIMIT 1",
+            "MATCH (n:User) WHERE n.email = $value RETURN n LIMIT 1"
+    );
+
+    private final Driver driver;
+
+    @Value("${graph.schema.bootstrap:true}")
+    private boolean bootstrap;
+
+    @Value("${graph.schema.verify-plans:true}")
+    private boolean verifyPlans;
+
+    @Value("${graph.schema.await-seconds:60}")
+    private int awaitSeconds;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try (Session session = driver.session()) {
+            if (bootstrap) {
+                for (String statement : SCHEMA) {
+                    session.run(statement).consume();
+                    log.info("Schema applied: {}", statement);
+                }
+                session.run("CALL db.awaitIndexes($seconds)", Map.of("seconds", awaitSeconds)).consume();
+            }
+            if (verifyPlans) {
+                for (String query : HOT_QUERIES) {
+                    Plan plan = session.run("EXPLAIN " + query, Map.of("value", "")).consume().plan();
+                    if (!usesIndexSeek(plan)) {
+                        throw new IllegalStateException("Query is not served by an index seek: " + query);
+                    }
+                    log.info("Index seek verified for: {}", query);
+                }
+            }
+        }
+    }
+
+    private boolean usesIndexSeek(Plan plan) {
+        if (plan == null) {
+            return false;
+        }
+        if (plan.operatorType().contains("IndexSeek")) {
+            return true;
+        }
+        return plan.children().stream().anyMatch(this::usesIndexSeek);
+    }
+}
@@ -5,15 +5,22 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.Optional;
+
 @Configuration
 @RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
 
     private final CorrelationIdInterceptor correlationIdInterceptor;
+    private final Optional<DatabaseConcurrencyLimiter> databaseConcurrencyLimiter;
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(correlationIdInterceptor)
                 .addPathPatterns("/**");
+        // Imports hold their own bounded write pool for the whole upload
+        databaseConcurrencyLimiter.ifPresent(limiter -> registry.addInterceptor(limiter)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/users/import/**"));
     }
 }
@@ -1,9 +1,20 @@
 package com.dev.graphservice.controller;
 
 import com.dev.graphservice.config.RequestContext;
+import com.dev.graphservice.core.CursorPage;
+import com.dev.graphservice.counter.FollowCounts;
 import com.dev.graphservice.dto.ApiResponse;
+import com.dev.graphservice.dto.FanoutFeedback;
+import com.dev.graphservice.exception.UserNotFoundException;
+import com.dev.graphservice.importer.GraphImportService;
+import com.dev.graphservice.importer.ImportFormat;
+import com.dev.graphservice.importer.ImportReport;
+import com.dev.graphservice.index.FollowGraphIndex.Candidate;
 import com.dev.graphservice.model.User;
+import com.dev.graphservice.service.FanoutAudience;
+import com.dev.graphservice.service.FanoutBatchSizer;
 import com.dev.graphservice.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +24,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static com.dev.graphservice.constants.ApplicationConstants.DEFAULT_PAGE_SIZE;
+import static com.dev.graphservice.constants.ApplicationConstants.MAX_PAGE_SIZE;
+
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
@@ -20,6 +34,8 @@ public class GraphController {
 
     private final UserService userService;
     private final RequestContext requestContext;
+    private final GraphImportService graphImportService;
+    private final FanoutBatchSizer fanoutBatchSizer;
 
     @PostMapping
     public ResponseEntity<ApiResponse<User>> createUser(@RequestBody User user) {
@@ -47,16 +63,53 @@ public class GraphController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<User>>> getUsers() {
+    public ResponseEntity<ApiResponse<CursorPage<User>>> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size
+    ) {
         try {
-            List<User> users =  userService.getAllUsers();
+            int pageSize = Math.max(1, Math.min(size, Integer.parseInt(MAX_PAGE_SIZE)));
+            CursorPage<User> users = userService.getUsersPage(cursor, pageSize);
             return ResponseEntity.ok(ApiResponse.success("Users fetched successfully", users));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Invalid page request", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error retrieving users", e.getMessage()));
         }
     }
 
+    @PostMapping("/import/users")
+    public ResponseEntity<ApiResponse<ImportReport>> importUsers(HttpServletRequest request) {
+        try {
+            ImportReport report = graphImportService.importUsers(
+                    request.getInputStream(), ImportFormat.fromContentType(request.getContentType()));
+            return ResponseEntity.ok(ApiResponse.success("Users imported", report));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error importing users", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/import/follows")
+    public ResponseEntity<ApiResponse<ImportReport>> importFollows(HttpServletRequest request) {
+        try {
+            ImportReport report = graphImportService.importFollows(
+                    request.getInputStream(), ImportFormat.fromContentType(request.getContentType()));
+            return ResponseEntity.ok(ApiResponse.success("Follows imported", report));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error importing follows", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/import")
+    public ResponseEntity<ApiResponse<List<ImportReport>>> getRunningImports() {
+        return ResponseEntity.ok(ApiResponse.success("Running imports fetched successfully",
+                graphImportService.runningImports()));
+    }
+
     @PostMapping("/follow/{toUserId}")
     public ResponseEntity<ApiResponse<Void>> followUser(@PathVariable UUID toUserId) {
         try {
@@ -120,6 +173,107 @@ public class GraphController {
         }
     }
 
+    @GetMapping("/followings/userId/{userId}")
+    public ResponseEntity<ApiResponse<List<User>>> getFollowingIds(@PathVariable UUID userId) {
+        try {
+            List<User> followings = toUserRefs(userService.getFollowingIds(userId));
+            return ResponseEntity.ok(ApiResponse.success("Followings fetched successfully", followings));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving followings", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/followers/userId/{userId}")
+    public ResponseEntity<ApiResponse<List<User>>> getFollowerIds(@PathVariable UUID userId) {
+        try {
+            List<User> followers = toUserRefs(userService.getFollowerIds(userId));
+            return ResponseEntity.ok(ApiResponse.success("Followers fetched successfully", followers));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving followers", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{userId}/counts")
+    public ResponseEntity<ApiResponse<FollowCounts>> getFollowCounts(@PathVariable UUID userId) {
+        try {
+            FollowCounts counts = userService.getFollowCounts(userId);
+            return ResponseEntity.ok(ApiResponse.success("Follow counts fetched successfully", counts));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("User not found with id: " + userId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving follow counts", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{userId}/fanout-sources")
+    public ResponseEntity<ApiResponse<List<UUID>>> filterFanoutSources(@PathVariable UUID userId,
+                                                                      @RequestBody List<UUID> candidates) {
+        try {
+            List<UUID> sources = userService.filterFanoutSources(userId, candidates);
+            return ResponseEntity.ok(ApiResponse.success("Fan-out sources fetched successfully", sources));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("User not found with id: " + userId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving fan-out sources", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{userId}/fanout-audience")
+    public ResponseEntity<ApiResponse<FanoutAudience>> getFanoutAudience(@PathVariable UUID userId) {
+        try {
+            FanoutAudience audience = userService.getFanoutAudience(userId);
+            return ResponseEntity.ok(ApiResponse.success("Fan-out audience fetched successfully", audience));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving fan-out audience", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/fanout/feedback")
+    public ResponseEntity<ApiResponse<Integer>> reportFanoutFeedback(@RequestBody FanoutFeedback feedback) {
+        try {
+            fanoutBatchSizer.recordInsert(feedback.rows(), feedback.insertMillis());
+            return ResponseEntity.ok(ApiResponse.success("Fan-out feedback recorded", fanoutBatchSizer.batchSize()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error recording fan-out feedback", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{fromUserId}/path/{toUserId}")
+    public ResponseEntity<ApiResponse<List<User>>> getConnectionPath(@PathVariable UUID fromUserId,
+                                                                     @PathVariable UUID toUserId) {
+        try {
+            return userService.getConnectionPath(fromUserId, toUserId)
+                    .map(path -> ResponseEntity.ok(ApiResponse.success("Connection path found", toUserRefs(path))))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(ApiResponse.error("No connection found from " + fromUserId + " to " + toUserId)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving connection path", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{userId}/recommendations")
+    public ResponseEntity<ApiResponse<List<Candidate>>> getRecommendations(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size
+    ) {
+        try {
+            List<Candidate> recommendations = userService.getRecommendations(userId, Math.max(1, Math.min(size, Integer.parseInt(MAX_PAGE_SIZE))));
+            return ResponseEntity.ok(ApiResponse.success("Recommendations fetched successfully", recommendations));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving recommendations", e.getMessage()));
+        }
+    }
+
     @GetMapping("/connections")
     public ResponseEntity<ApiResponse<List<User>>> getConnections(
             @RequestParam(required = false) UUID userId
@@ -133,4 +287,10 @@ public class GraphController {
                     .body(ApiResponse.error("Error retrieving connections", e.getMessage()));
         }
     }
+
+    private List<User> toUserRefs(List<UUID> userIds) {
+        return userIds.stream()
+                .map(id -> User.builder().userId(id).build())
+                .toList();
+    }
 }
\ No newline at end of file
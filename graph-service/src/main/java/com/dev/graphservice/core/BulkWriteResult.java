@@ -0,0 +1,10 @@
+package com.dev.graphservice.core;
+
+/**
+ * Outcome of a chunked bulk write: rows written, number of round trips and their latency. Rows the
+ * store skipped, such as edges whose endpoints do not exist, are not counted as written.
+ */
+public record BulkWriteResult(int rows, int chunks, long elapsedMs, long maxChunkMs) {
+
+    public static final BulkWriteResult EMPTY = new BulkWriteResult(0, 0, 0, 0);
+}
@@ -0,0 +1,31 @@
+package com.dev.graphservice.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset scan. {@code nextCursor} is an opaque token for the next page,
+ * or {@code null} once the scan is exhausted.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static String encodeCursor(Object lastKey) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastKey.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the last key of the previous page, or {@code null} for the first page.
+     */
+    public static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+}
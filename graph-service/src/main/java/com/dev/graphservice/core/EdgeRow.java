@@ -0,0 +1,6 @@
+package com.dev.graphservice.core;
+
+/**
+ * One edge of a bulk edge write, both endpoints identified by the same vertex property.
+ */
+public record EdgeRow(Object from, Object to) {}
@@ -1,12 +1,10 @@
 package com.dev.graphservice.core;
 
-import com.dev.graphservice.annotation.GraphEdge;
-import com.dev.graphservice.annotation.GraphVertex;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -14,59 +12,43 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class EntityMapper {
 
-    private final Map<Class<?>, String> labelCache = new ConcurrentHashMap<>();
-    private final Map<Class<?>, Field[]> fieldCache = new ConcurrentHashMap<>();
-    private final Map<Class<?>, Method[]> methodCache = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, EntityPlan<?>> PLAN_CACHE = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    private static <T> EntityPlan<T> plan(Class<T> type) {
+        return (EntityPlan<T>) PLAN_CACHE.computeIfAbsent(type, EntityPlan::compile);
+    }
 
     public String resolveLabel(Class<?> entityClass) {
-        return labelCache.computeIfAbsent(entityClass, clazz -> {
-            GraphVertex annotation = clazz.getAnnotation(GraphVertex.class);
-            if (annotation != null && !annotation.label().isEmpty()) {
-                return annotation.label();
-            }
-            return clazz.getSimpleName();
-        });
+        return plan(entityClass).label();
     }
 
     public Map<String, Object> extractProperties(Object entity) {
         if (entity == null) return Map.of();
-        Map<String, Object> props = new LinkedHashMap<>();
-        Field[] fields = getCachedFields(entity.getClass());
-        for (Field field : fields) {
-            if (shouldExtractField(field)) {
-                try {
-                    field.setAccessible(true);
-                    Object value = field.get(entity);
-                    String propertyName = field.getName();
-                    if (value != null) props.put(propertyName, value);
-                } catch (IllegalAccessException e) {
-                    log.warn("Cannot access field: {}", field.getName(), e);
-                }
-            }
+        EntityPlan.Property[] properties = plan(entity.getClass()).properties();
+        Map<String, Object> props = new LinkedHashMap<>(properties.length * 2);
+        for (EntityPlan.Property property : properties) {
+            Object value = property.getter().apply(entity);
+            if (value != null) props.put(property.name(), value);
         }
         return props;
     }
 
+    public Object readProperty(Object entity, String name) {
+        EntityPlan.Property property = plan(entity.getClass()).property(name);
+        return property != null ? property.getter().apply(entity) : null;
+    }
+
     public List<EdgeRelation> extractEdges(Object entity) {
+        EntityPlan.Edge[] edges = plan(entity.getClass()).edges();
+        if (edges.length == 0) return List.of();
         List<EdgeRelation> list = new ArrayList<>();
-        for (Field f : entity.getClass().getDeclaredFields()) {
-            if (f.isAnnotationPresent(GraphEdge.class)) {
-                GraphEdge edge = f.getAnnotation(GraphEdge.class);
-                f.setAccessible(true);
-                try {
-                    Object val = f.get(entity);
-                    Direction direction = switch (edge.direction()) {
-                        case IN -> Direction.IN;
-                        case OUT -> Direction.OUT;
-                        case BOTH -> Direction.BOTH;
-                    };
-                    
-                    if (val instanceof Collection<?> col) {
-                        for (Object o : col) list.add(new EdgeRelation(edge.label(), o, direction));
-                    } else if (val != null) {
-                        list.add(new EdgeRelation(edge.label(), val, direction));
-                    }
-                } catch (IllegalAccessException ignored) {}
+        for (EntityPlan.Edge edge : edges) {
+            Object val = edge.getter().apply(entity);
+            if (val instanceof Collection<?> col) {
+                for (Object o : col) list.add(new EdgeRelation(edge.label(), o, edge.direction()));
+            } else if (val != null) {
+                list.add(new EdgeRelation(edge.label(), val, edge.direction()));
             }
         }
         return list;
@@ -74,12 +56,11 @@ public class EntityMapper {
 
     public static <T> T populateFromVertex(org.apache.tinkerpop.gremlin.structure.Vertex v, Class<T> type) {
         try {
-            T instance = type.getDeclaredConstructor().newInstance();
-            for (Field f : type.getDeclaredFields()) {
-                if (f.isAnnotationPresent(GraphEdge.class)) continue;
-                f.setAccessible(true);
-                Object value = v.property(f.getName()).isPresent() ? v.property(f.getName()).value() : null;
-                if (value != null) f.set(instance, value);
+            EntityPlan<T> plan = plan(type);
+            T instance = plan.newInstance();
+            for (EntityPlan.Property property : plan.properties()) {
+                VertexProperty<Object> vp = v.property(property.name());
+                if (vp.isPresent() && vp.value() != null) property.setter().accept(instance, vp.value());
             }
             return instance;
         } catch (Exception e) {
@@ -89,24 +70,16 @@ public class EntityMapper {
 
     public <T> T populateFromMap(Map<Object, Object> map, Class<T> type) {
         try {
-            T instance = type.getDeclaredConstructor().newInstance();
-            for (Field f : type.getDeclaredFields()) {
-                if (f.isAnnotationPresent(GraphEdge.class)) continue;
-                f.setAccessible(true);
-                if (f.getName().equals("id")) {
+            EntityPlan<T> plan = plan(type);
+            T instance = plan.newInstance();
+            EntityPlan.Property idProperty = plan.id();
+            for (EntityPlan.Property property : plan.properties()) {
+                if (property == idProperty) {
                     Object idValue = map.get(org.apache.tinkerpop.gremlin.structure.T.id);
-                    if (idValue != null) {
-                        if (f.getType() == String.class) {
-                            f.set(instance, idValue.toString());
-                        } else if (f.getType() == Long.class || f.getType() == long.class) {
-                            f.set(instance, Long.valueOf(idValue.toString()));
-                        } else {
-                            f.set(instance, idValue);
-                        }
-                    }
+                    if (idValue != null) property.setter().accept(instance, convertId(idValue, property.type()));
                 } else {
-                    Object value = map.get(f.getName());
-                    if (value != null) f.set(instance, value);
+                    Object value = map.get(property.name());
+                    if (value != null) property.setter().accept(instance, value);
                 }
             }
             return instance;
@@ -115,22 +88,13 @@ public class EntityMapper {
         }
     }
 
-    private boolean isEdgeField(Field field) {
-        return field.getAnnotation(GraphEdge.class) != null;
-    }
-
-    private Field[] getCachedFields(Class<?> clazz) {
-        return fieldCache.computeIfAbsent(clazz, Class::getDeclaredFields);
-    }
-
-    private boolean shouldExtractField(Field field) {
-        return !field.getName().startsWith("$")
-                && !field.getName().startsWith("_")
-                && !field.isSynthetic()
-                && !Modifier.isStatic(field.getModifiers())
-                && !isEdgeField(field)
-                && !Modifier.isTransient(field.getModifiers());
-                //&& field.getAnnotation(GraphIgnore.class) == null;
+    private static Object convertId(Object idValue, Class<?> idType) {
+        if (idType == String.class) {
+            return idValue.toString();
+        } else if (idType == Long.class || idType == long.class) {
+            return idValue instanceof Long l ? l : Long.valueOf(idValue.toString());
+        }
+        return idValue;
     }
 
 
@@ -0,0 +1,269 @@
+package com.dev.graphservice.core;
+
+import com.dev.graphservice.annotation.GraphEdge;
+import com.dev.graphservice.annotation.GraphVertex;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Compiled mapping plan for one entity class, built once by {@link EntityMapper} and cached.
+ * <p>
+ * Fields are resolved up front and every access goes through a pre-bound lambda: public
+ * JavaBean accessors and the no-arg constructor are spun into {@link Function} /
+ * {@link BiConsumer} / {@link Supplier} instances with {@link LambdaMetafactory}, anything
+ * else falls back to a private-lookup field {@link MethodHandle}. No per-row reflection,
+ * {@code setAccessible} or field scanning is left on the mapping path.
+ */
+final class EntityPlan<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Class<T> type;
+    private final String label;
+    private final Supplier<T> constructor;
+    private final Property[] properties;
+    private final Property id;
+    private final Edge[] edges;
+
+    private EntityPlan(Class<T> type, String label, Supplier<T> constructor,
+                       Property[] properties, Property id, Edge[] edges) {
+        this.type = type;
+        this.label = label;
+        this.constructor = constructor;
+        this.properties = properties;
+        this.id = id;
+        this.edges = edges;
+    }
+
+    record Property(String name, Class<?> type, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {}
+
+    record Edge(String label, Direction direction, Function<Object, Object> getter) {}
+
+    static <T> EntityPlan<T> compile(Class<T> type) {
+        GraphVertex vertex = type.getAnnotation(GraphVertex.class);
+        String label = vertex != null && !vertex.label().isEmpty() ? vertex.label() : type.getSimpleName();
+
+        List<Property> properties = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        Property id = null;
+        for (Field field : type.getDeclaredFields()) {
+            if (field.isSynthetic() || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            GraphEdge edge = field.getAnnotation(GraphEdge.class);
+            if (edge != null) {
+                edges.add(new Edge(edge.label(), toGremlinDirection(edge.direction()), getter(type, field)));
+                continue;
+            }
+            if (!isMappedProperty(field)) {
+                continue;
+            }
+            Property property = new Property(field.getName(), field.getType(), getter(type, field), setter(type, field));
+            properties.add(property);
+            if (property.name().equals("id")) {
+                id = property;
+            }
+        }
+
+        return new EntityPlan<>(type, label, constructor(type),
+                properties.toArray(new Property[0]), id, edges.toArray(new Edge[0]));
+    }
+
+    Class<T> type() {
+        return type;
+    }
+
+    String label() {
+        return label;
+    }
+
+    T newInstance() {
+        return constructor.get();
+    }
+
+    Property[] properties() {
+        return properties;
+    }
+
+    Property id() {
+        return id;
+    }
+
+    Edge[] edges() {
+        return edges;
+    }
+
+    Property property(String name) {
+        for (Property property : properties) {
+            if (property.name().equals(name)) {
+                return property;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isMappedProperty(Field field) {
+        return !field.getName().startsWith("$")
+                && !field.getName().startsWith("_")
+                && !Modifier.isTransient(field.getModifiers());
+    }
+
+    private static Direction toGremlinDirection(com.dev.graphservice.enums.Direction direction) {
+        return switch (direction) {
+            case IN -> Direction.IN;
+            case OUT -> Direction.OUT;
+            case BOTH -> Direction.BOTH;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> constructor(Class<T> type) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    handle,
+                    MethodType.methodType(type));
+            return (Supplier<T>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            MethodHandle handle;
+            try {
+                handle = privateHandle(type, lookup -> lookup.findConstructor(type, MethodType.methodType(void.class)))
+                        .asType(MethodType.methodType(Object.class));
+            } catch (IllegalStateException noConstructor) {
+                // Still allows property extraction, only hydration needs a no-arg constructor
+                return () -> {
+                    throw noConstructor;
+                };
+            }
+            return () -> {
+                try {
+                    return (T) (Object) handle.invokeExact();
+                } catch (Throwable ex) {
+                    throw new IllegalStateException("Cannot instantiate " + type.getName(), ex);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Class<?> type, Field field) {
+        Method accessor = findAccessor(type, field);
+        if (accessor != null) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(accessor);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(wrap(field.getType()), type));
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable ignored) {
+                // fall through to the field handle
+            }
+        }
+        MethodHandle handle = privateHandle(type, lookup -> lookup.unreflectGetter(field))
+                .asType(MethodType.methodType(Object.class, Object.class));
+        return target -> {
+            try {
+                return handle.invokeExact(target);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot read " + field.getName(), e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Class<?> type, Field field) {
+        Method mutator = findMutator(type, field);
+        if (mutator != null) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(mutator);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(void.class, type, wrap(field.getType())));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable ignored) {
+                // fall through to the field handle
+            }
+        }
+        MethodHandle handle;
+        try {
+            handle = privateHandle(type, lookup -> lookup.unreflectSetter(field))
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (IllegalStateException readOnly) {
+            // final fields can still be extracted, they just cannot be hydrated
+            return (target, value) -> {
+                throw readOnly;
+            };
+        }
+        return (target, value) -> {
+            try {
+                handle.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot write " + field.getName(), e);
+            }
+        };
+    }
+
+    private static Method findAccessor(Class<?> type, Field field) {
+        String suffix = capitalize(field.getName());
+        for (String name : new String[]{"get" + suffix, "is" + suffix}) {
+            try {
+                Method method = type.getMethod(name);
+                if (method.getReturnType() == field.getType()) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ignored) {
+                // try the next naming convention
+            }
+        }
+        return null;
+    }
+
+    private static Method findMutator(Class<?> type, Field field) {
+        try {
+            Method method = type.getMethod("set" + capitalize(field.getName()), field.getType());
+            return method.getReturnType() == void.class ? method : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle privateHandle(Class<?> type, HandleResolver resolver) {
+        try {
+            return resolver.resolve(MethodHandles.privateLookupIn(type, LOOKUP));
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException("Cannot access members of " + type.getName(), e);
+        }
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    @FunctionalInterface
+    private interface HandleResolver {
+        MethodHandle resolve(MethodHandles.Lookup lookup) throws IllegalAccessException, NoSuchMethodException;
+    }
+}
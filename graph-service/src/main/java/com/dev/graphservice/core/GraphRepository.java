@@ -2,9 +2,11 @@ package com.dev.graphservice.core;
 
 import com.dev.graphservice.enums.Direction;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 public interface GraphRepository {
 
@@ -12,12 +14,16 @@ public interface GraphRepository {
 
     <T> List<T> saveAll(List<T> entities);
 
+    <T> BulkWriteResult upsertAll(Class<T> type, String key, List<T> entities);
+
     <T> Optional<T> findById(Class<T> type, Object id);
 
     <T> List<T> findAll(Class<T> type);
 
     <T> List<T> findAll(Class<T> type, int limit, int offset);
 
+    <T> CursorPage<T> findPage(Class<T> type, String orderKey, String cursor, int limit);
+
     <T> Optional<T> findByProperty(Class<T> type, String key, Object value);
 
     <T> List<T> findByProperties(Class<T> type, Map<String, Object> properties);
@@ -48,11 +54,19 @@ public interface GraphRepository {
 
     void createEdgeBetween(Object from, Object to, String label, Map<String, Object> edgeProps);
 
-    void createEdgeBetween(Object from, Object to, String label, Direction direction);
+    /**
+     * Creates the edge unless it already exists, returns whether an edge was created.
+     */
+    boolean createEdgeBetween(Object from, Object to, String label, Direction direction);
 
     void createEdgesBetween(Object from, List<Object> toList, String label, Direction direction);
 
-    void deleteEdge(Object fromId, Object toId, String edgeLabel);
+    BulkWriteResult createEdgesByProperty(String vertexLabel, String key, String edgeLabel, List<EdgeRow> edges);
+
+    /**
+     * Deletes the {@code fromId -> toId} edge, returns whether one existed.
+     */
+    boolean deleteEdge(Object fromId, Object toId, String edgeLabel);
 
     void deleteAllEdges(Object vertexId, String edgeLabel);
 
@@ -68,13 +82,38 @@ public interface GraphRepository {
 
     <T> List<T> traverseIncoming(Class<T> type, Object to, String edgeLabel);
 
+    /**
+     * Returns a single property of every neighbour of {@code vertexId}, without hydrating the neighbours.
+     * Callers that cannot hold the whole row page through {@link #neighbourValuesAfter} instead.
+     */
+    List<Object> neighbourValues(Object vertexId, String edgeLabel, Direction direction, String property);
+
+    /**
+     * Returns up to {@code limit} values of {@code property} of the neighbours of {@code vertexId}
+     * that sort after {@code after}, or the first ones when it is null, in ascending order. Pages are
+     * cut by value, so a page starts at the same neighbour however the neighbours before it changed.
+     */
+    List<Object> neighbourValuesAfter(Object vertexId, String edgeLabel, Direction direction, String property,
+                                      Object after, int limit);
+
     <T> List<T> traverseBoth(Class<T> type, Object vertex, String edgeLabel);
 
     <T> List<T> traverseWithDepth(Class<T> type, Object from, String edgeLabel, int depth);
 
+    void forEachEdge(String edgeLabel, String key, BiConsumer<Object, Object> consumer);
+
+    /**
+     * Expands a whole BFS frontier in one query: for every vertex whose {@code key} is in {@code keys},
+     * hands {@code (key, neighbourKey)} to the consumer for each neighbour in {@code direction}.
+     */
+    void expandNeighbours(String vertexLabel, String key, Collection<?> keys, String edgeLabel,
+                          Direction direction, BiConsumer<Object, Object> consumer);
+
     List<List<Object>> getPath(Object from, Object to, String edgeLabel, int maxDepth);
 
     long countEdges(Object vertexId, String edgeLabel);
 
+    long countEdges(Object vertexId, String edgeLabel, Direction direction);
+
     long countAll();
 }
@@ -1,23 +1,37 @@
 package com.dev.graphservice.core;
 
 import com.dev.graphservice.enums.Direction;
+import com.dev.graphservice.utils.BatchUtils;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 @Repository
 @ConditionalOnProperty(name = "graph.impl", havingValue = "gremlin", matchIfMissing = true)
 @RequiredArgsConstructor
+@Slf4j
 public class GremlinGraphRepositoryImpl implements GraphRepository {
 
     private final OGMProcessor ogmProcessor;
     private final QueryExecutionEngine queryExecution;
     private final GremlinTransactionManager tx;
 
+    @Value("${graph.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+
     private org.apache.tinkerpop.gremlin.structure.Direction toGremlinDirection(Direction direction) {
         return switch (direction) {
             case IN -> org.apache.tinkerpop.gremlin.structure.Direction.IN;
@@ -36,7 +50,13 @@ public class GremlinGraphRepositoryImpl implements GraphRepository {
 
     @Override
     public <T> List<T> saveAll(List<T> entities) {
-        return tx.execute(g -> ogmProcessor.saveAll(g, entities));
+        writeInChunks("save", entities, (g, chunk) -> ogmProcessor.saveAll(g, chunk));
+        return entities;
+    }
+
+    @Override
+    public <T> BulkWriteResult upsertAll(Class<T> type, String key, List<T> entities) {
+        return writeInChunks("upsert " + type.getSimpleName(), entities, (g, chunk) -> ogmProcessor.upsertAll(g, key, chunk));
     }
 
     @Override
@@ -72,6 +92,11 @@ public class GremlinGraphRepositoryImpl implements GraphRepository {
         return tx.execute(g -> ogmProcessor.findAll(g, type, limit, offset));
     }
 
+    @Override
+    public <T> CursorPage<T> findPage(Class<T> type, String orderKey, String cursor, int limit) {
+        return tx.execute(g -> ogmProcessor.findPage(g, type, orderKey, cursor, limit));
+    }
+
     @Override
     public <T> Optional<T> findByProperty(Class<T> type, String key, Object value) {
         return tx.execute(g -> ogmProcessor.findByProperty(g, type, key, value));
@@ -153,29 +178,52 @@ public class GremlinGraphRepositoryImpl implements GraphRepository {
     }
 
     @Override
-    public void createEdgeBetween(Object from, Object to, String label, Direction direction) {
-        tx.execute(g -> {
-            queryExecution.addEdgeBetween(g, from, to, label, toGremlinDirection(direction));
-            return null;
+    public boolean createEdgeBetween(Object from, Object to, String label, Direction direction) {
+        return tx.execute(g -> switch (direction) {
+            case OUT -> queryExecution.mergeEdgeBetween(g, from, to, label);
+            case IN -> queryExecution.mergeEdgeBetween(g, to, from, label);
+            case BOTH -> queryExecution.mergeEdgeBetween(g, from, to, label)
+                    | queryExecution.mergeEdgeBetween(g, to, from, label);
         });
     }
 
     @Override
     public void createEdgesBetween(Object from, List<Object> toList, String label,  Direction direction) {
-        tx.execute(g -> {
-            toList.parallelStream().forEach(toId -> {
-                queryExecution.addEdgeBetween(g, from, toId, label, toGremlinDirection(direction));
-            });
-            return null;
+        List<EdgeRow> rows = new ArrayList<>(direction == Direction.BOTH ? toList.size() * 2 : toList.size());
+        for (Object to : toList) {
+            if (direction != Direction.IN) rows.add(new EdgeRow(from, to));
+            if (direction != Direction.OUT) rows.add(new EdgeRow(to, from));
+        }
+        writeInChunks("edges " + label, rows, (g, chunk) -> queryExecution.mergeEdges(g, label, chunk));
+    }
+
+    @Override
+    public BulkWriteResult createEdgesByProperty(String vertexLabel, String key, String edgeLabel, List<EdgeRow> edges) {
+        return countInChunks("edges " + edgeLabel, edges, (g, chunk) -> {
+            Set<Object> keys = new HashSet<>(chunk.size() * 2);
+            for (EdgeRow edge : chunk) {
+                keys.add(edge.from());
+                keys.add(edge.to());
+            }
+            Map<Object, Object> ids = queryExecution.resolveIds(g, vertexLabel, key, keys);
+            List<EdgeRow> resolved = new ArrayList<>(chunk.size());
+            for (EdgeRow edge : chunk) {
+                Object fromId = ids.get(edge.from());
+                Object toId = ids.get(edge.to());
+                if (fromId != null && toId != null) resolved.add(new EdgeRow(fromId, toId));
+            }
+            if (resolved.size() < chunk.size()) {
+                log.warn("Bulk edges {}: skipped {} rows with unknown {} endpoints",
+                        edgeLabel, chunk.size() - resolved.size(), vertexLabel);
+            }
+            queryExecution.mergeEdges(g, edgeLabel, resolved);
+            return resolved.size();
         });
     }
 
     @Override
-    public void deleteEdge(Object fromId, Object toId, String edgeLabel) {
-        tx.execute(g -> {
-            queryExecution.deleteEdge(g, fromId, toId, edgeLabel);
-            return null;
-        });
+    public boolean deleteEdge(Object fromId, Object toId, String edgeLabel) {
+        return tx.execute(g -> queryExecution.deleteEdge(g, fromId, toId, edgeLabel));
     }
 
     @Override
@@ -225,6 +273,18 @@ public class GremlinGraphRepositoryImpl implements GraphRepository {
         return tx.execute(g -> ogmProcessor.traverseIncoming(g, type, to, edgeLabel));
     }
 
+    @Override
+    public List<Object> neighbourValues(Object vertexId, String edgeLabel, Direction direction, String property) {
+        return tx.execute(g -> queryExecution.neighbourValues(g, vertexId, edgeLabel, toGremlinDirection(direction), property));
+    }
+
+    @Override
+    public List<Object> neighbourValuesAfter(Object vertexId, String edgeLabel, Direction direction, String property,
+                                             Object after, int limit) {
+        return tx.execute(g -> queryExecution.neighbourValuesAfter(
+                g, vertexId, edgeLabel, toGremlinDirection(direction), property, after, limit));
+    }
+
     @Override
     public <T> List<T> traverseBoth(Class<T> type, Object vertexId, String edgeLabel) {
         return tx.execute(g -> ogmProcessor.traverseBoth(g, type, vertexId, edgeLabel));
@@ -235,6 +295,23 @@ public class GremlinGraphRepositoryImpl implements GraphRepository {
         return tx.execute(g -> ogmProcessor.traverseWithDepth(g, type, from, edgeLabel, depth));
     }
 
+    @Override
+    public void forEachEdge(String edgeLabel, String key, BiConsumer<Object, Object> consumer) {
+        tx.execute(g -> {
+            queryExecution.forEachEdge(g, edgeLabel, key, consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public void expandNeighbours(String vertexLabel, String key, Collection<?> keys, String edgeLabel,
+                                 Direction direction, BiConsumer<Object, Object> consumer) {
+        tx.execute(g -> {
+            queryExecution.expandNeighbours(g, vertexLabel, key, keys, edgeLabel, toGremlinDirection(direction), consumer);
+            return null;
+        });
+    }
+
     @Override
     public List<List<Object>> getPath(Object from, Object to, String edgeLabel, int maxDepth) {
         return tx.execute(g -> queryExecution.getPath(g, from, to, edgeLabel, maxDepth));
@@ -245,8 +322,51 @@ public class GremlinGraphRepositoryImpl implements GraphRepository {
         return tx.execute(g -> queryExecution.countEdges(g, vertexId, edgeLabel));
     }
 
+    @Override
+    public long countEdges(Object vertexId, String edgeLabel, Direction direction) {
+        return tx.execute(g -> queryExecution.countEdges(g, vertexId, edgeLabel, toGremlinDirection(direction)));
+    }
+
     @Override
     public long countAll() {
         return tx.execute(queryExecution::countAll);
     }
+
+    /**
+     * Splits {@code rows} into {@code graph.bulk.chunk-size} chunks and writes each one in its own
+     * transaction, so a chunk either commits as a whole or not at all.
+     */
+    private <R> BulkWriteResult writeInChunks(String operation, List<R> rows, BiConsumer<GraphTraversalSource, List<R>> writer) {
+        return countInChunks(operation, rows, (g, chunk) -> {
+            writer.accept(g, chunk);
+            return chunk.size();
+        });
+    }
+
+    /**
+     * Like {@link #writeInChunks}, the writer returns how many rows of its chunk it actually wrote.
+     */
+    private <R> BulkWriteResult countInChunks(String operation, List<R> rows, BiFunction<GraphTraversalSource, List<R>, Integer> writer) {
+        if (rows.isEmpty()) {
+            return BulkWriteResult.EMPTY;
+        }
+        List<List<R>> chunks = BatchUtils.partition(rows, bulkChunkSize);
+        long start = System.nanoTime();
+        long maxChunkMs = 0;
+        int written = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            List<R> chunk = chunks.get(i);
+            long chunkStart = System.nanoTime();
+            written += tx.executeInNewTransaction(g -> writer.apply(g, chunk));
+            long chunkMs = (System.nanoTime() - chunkStart) / 1_000_000;
+            maxChunkMs = Math.max(maxChunkMs, chunkMs);
+            log.debug("Bulk {}: chunk {}/{} of {} rows written in {} ms",
+                    operation, i + 1, chunks.size(), chunk.size(), chunkMs);
+        }
+        BulkWriteResult result = new BulkWriteResult(written, chunks.size(),
+                (System.nanoTime() - start) / 1_000_000, maxChunkMs);
+        log.info("Bulk {}: {} of {} rows in {} chunks, {} ms total, slowest chunk {} ms",
+                operation, result.rows(), rows.size(), result.chunks(), result.elapsedMs(), result.maxChunkMs());
+        return result;
+    }
 }
@@ -1,14 +1,19 @@
 package com.dev.graphservice.core;
 
 import com.dev.graphservice.enums.Direction;
+import com.dev.graphservice.utils.BatchUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.data.neo4j.core.Neo4jTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 
@@ -20,6 +25,10 @@ public class Neo4jGraphRepository implements GraphRepository {
 
     private final Neo4jClient neo4jClient;
     private final Neo4jTemplate neo4jTemplate;
+    private final EntityMapper mapper;
+
+    @Value("${graph.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
 
     @Override
     public <T> T save(T entity) {
@@ -31,6 +40,28 @@ public class Neo4jGraphRepository implements GraphRepository {
         return neo4jTemplate.saveAll(entities);
     }
 
+    @Override
+    public <T> BulkWriteResult upsertAll(Class<T> type, String key, List<T> entities) {
+        String cypher = String.format("""
+            UNWIND $rows AS row
+            MERGE (n:`%s` {%s: row.key})
+            SET n += row.props
+            """, type.getSimpleName(), key);
+
+        List<Map<String, Object>> rows = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            Map<String, Object> props = new HashMap<>();
+            mapper.extractProperties(entity).forEach((k, v) -> props.put(k, convertValue(v)));
+            props.remove("id");
+            Object keyValue = props.get(key);
+            if (keyValue == null) {
+                throw new IllegalArgumentException("Cannot upsert " + type.getSimpleName() + " without " + key);
+            }
+            rows.add(Map.of("key", keyValue, "props", props));
+        }
+        return writeInChunks("upsert " + type.getSimpleName(), cypher, rows, Map.of());
+    }
+
     @Override
     public <T> Optional<T> findById(Class<T> type, Object id) {
         return neo4jTemplate.findById(id, type);
@@ -43,7 +74,32 @@ public class Neo4jGraphRepository implements GraphRepository {
 
     @Override
     public <T> List<T> findAll(Class<T> type, int limit, int offset) {
-         return neo4jTemplate.findAll(type).stream().skip(offset).limit(limit).collect(Collectors.toList());
+        String cypher = String.format("MATCH (n:`%s`) RETURN n SKIP $skip LIMIT $limit", type.getSimpleName());
+        return neo4jTemplate.findAll(cypher, Map.of("skip", offset, "limit", limit), type);
+    }
+
+    @Override
+    public <T> CursorPage<T> findPage(Class<T> type, String orderKey, String cursor, int limit) {
+        // Two shapes, an "$after IS NULL OR" predicate would keep the planner off the orderKey index
+        Object after = CursorPage.decodeCursor(cursor);
+        String cypher = after == null
+                ? String.format("MATCH (n:`%1$s`) WHERE n.%2$s IS NOT NULL RETURN n ORDER BY n.%2$s LIMIT $limit",
+                        type.getSimpleName(), orderKey)
+                : String.format("MATCH (n:`%1$s`) WHERE n.%2$s > $after RETURN n ORDER BY n.%2$s LIMIT $limit",
+                        type.getSimpleName(), orderKey);
+        Map<String, Object> params = new HashMap<>();
+        if (after != null) {
+            params.put("after", after);
+        }
+        params.put("limit", limit + 1);
+
+        List<T> rows = neo4jTemplate.findAll(cypher, params, type);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        Object lastKey = mapper.readProperty(items.get(limit - 1), orderKey);
+        return new CursorPage<>(items, CursorPage.encodeCursor(lastKey));
     }
 
     @Override
@@ -63,16 +119,16 @@ public class Neo4jGraphRepository implements GraphRepository {
         cypher.append(String.join(" AND ", conditions));
         cypher.append(" RETURN n");
 
-        return neo4jClient.query(cypher.toString())
-                .bindAll(properties)
-                .fetchAs(type)
-                .mappedBy((t, r) -> neo4jTemplate.findById(r.get("n").asNode().elementId(), type).orElse(null))
-                .all().stream().filter(Objects::nonNull).toList();
+        Map<String, Object> params = new HashMap<>();
+        properties.forEach((k, v) -> params.put(k, convertValue(v)));
+        return neo4jTemplate.findAll(cypher.toString(), params, type);
     }
 
     @Override
     public List<List<Object>> getPath(Object from, Object to, String edgeLabel, int maxDepth) {
-        String cypher = String.format("MATCH p=(a)-[:`%s`*1..%d]->(b) WHERE elementId(a) = $from AND elementId(b) = $to RETURN p", edgeLabel, maxDepth);
+        String cypher = String.format(
+                "MATCH (a), (b) WHERE id(a) = $from AND id(b) = $to MATCH p = shortestPath((a)-[:`%s`*1..%d]->(b)) RETURN p",
+                edgeLabel, maxDepth);
         return neo4jClient.query(cypher)
                 .bind(from).to("from")
                 .bind(to).to("to")
@@ -111,7 +167,7 @@ public class Neo4jGraphRepository implements GraphRepository {
     public <T> void deleteByProperty(Class<T> type, String key, Object value) {
          String label = type.getSimpleName(); 
          String cypher = String.format("MATCH (n:`%s`) WHERE n.%s = $value DETACH DELETE n", label, key);
-         neo4jClient.query(cypher).bind(value).to("value").run();
+         neo4jClient.query(cypher).bind(convertValue(value)).to("value").run();
     }
 
     @Override
@@ -197,7 +253,7 @@ public class Neo4jGraphRepository implements GraphRepository {
     }
 
     @Override
-    public void createEdgeBetween(Object from, Object to, String label, Direction direction) {
+    public boolean createEdgeBetween(Object from, Object to, String label, Direction direction) {
 
         String cypher;
 
@@ -219,25 +275,52 @@ public class Neo4jGraphRepository implements GraphRepository {
         """, label);
         }
 
-        neo4jClient.query(cypher)
+        return neo4jClient.query(cypher)
                 .bind(from).to("from")
                 .bind(to).to("to")
-                .run();
+                .run()
+                .counters().relationshipsCreated() > 0;
     }
 
     @Override
     public void createEdgesBetween(Object from, List<Object> toList, String label, Direction direction) {
-         toList.forEach(to -> createEdgeBetween(from, to, label, direction));
+        String pattern = direction == Direction.OUT ? "(a)-[r:`%s`]->(b)" : "(b)-[r:`%s`]->(a)";
+        String cypher = String.format("""
+            MATCH (a)
+            WHERE id(a) = $from
+            UNWIND $rows AS toId
+            MATCH (b)
+            WHERE id(b) = toId
+            MERGE\s""" + pattern, label);
+
+        writeInChunks("edges " + label, cypher, toList, Map.of("from", from));
+    }
+
+    @Override
+    public BulkWriteResult createEdgesByProperty(String vertexLabel, String key, String edgeLabel, List<EdgeRow> edges) {
+        String cypher = String.format("""
+            UNWIND $rows AS row
+            MATCH (a:`%1$s` {%2$s: row.from})
+            MATCH (b:`%1$s` {%2$s: row.to})
+            MERGE (a)-[r:`%3$s`]->(b)
+            RETURN count(r) AS written
+            """, vertexLabel, key, edgeLabel);
+
+        List<Map<String, Object>> rows = edges.stream()
+                .map(e -> Map.of("from", convertValue(e.from()), "to", convertValue(e.to())))
+                .toList();
+        return writeInChunks("edges " + edgeLabel, cypher, rows, Map.of(), true);
     }
 
     @Override
-    public void deleteEdge(Object fromId, Object toId, String edgeLabel) {
+    public boolean deleteEdge(Object fromId, Object toId, String edgeLabel) {
          String cypher = String.format(
-            "MATCH (a)-[r:`%s`]->(b) WHERE elementId(a) = $from AND elementId(b) = $to DELETE r", edgeLabel);
-          neo4jClient.query(cypher)
+            "MATCH (a)-[r:`%s`]->(b) WHERE id(a) = $from AND id(b) = $to DELETE r", edgeLabel);
+          return neo4jClient.query(cypher)
             .bind(fromId).to("from")
             .bind(toId).to("to")
-            .run();
+            .run()
+            .counters().relationshipsDeleted() > 0;
     }
 
     @Override
@@ -299,30 +382,91 @@ public class Neo4jGraphRepository implements GraphRepository {
         return neo4jTemplate.findAll(cypher, Collections.singletonMap("id", to), type);
     }
 
+    @Override
+    public List<Object> neighbourValues(Object vertexId, String edgeLabel, Direction direction, String property) {
+        String cypher = String.format("MATCH %s WHERE id(a) = $id RETURN DISTINCT b.`%s` AS value",
+                neighbourPattern(edgeLabel, direction), property);
+        return new ArrayList<>(neo4jClient.query(cypher)
+                .bind(vertexId).to("id")
+                .fetchAs(Object.class).mappedBy((typeSystem, record) -> record.get("value").asObject())
+                .all());
+    }
+
+    @Override
+    public List<Object> neighbourValuesAfter(Object vertexId, String edgeLabel, Direction direction, String property,
+                                             Object after, int limit) {
+        String predicate = after == null ? "b.`%2$s` IS NOT NULL" : "b.`%2$s` > $after";
+        String cypher = String.format("MATCH %1$s WHERE id(a) = $id AND " + predicate
+                        + " RETURN DISTINCT b.`%2$s` AS value ORDER BY value LIMIT $limit",
+                neighbourPattern(edgeLabel, direction), property);
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", vertexId);
+        if (after != null) {
+            params.put("after", convertValue(after));
+        }
+        params.put("limit", limit);
+        return neo4jClient.query(cypher).bindAll(params).fetch().all().stream()
+                .map(row -> row.get("value"))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public <T> List<T> traverseBoth(Class<T> type, Object vertex, String edgeLabel) {
-           String cypher = String.format(
-                "MATCH (a)-[:`%s`]-(b) WHERE elementId(a) = $id RETURN b", edgeLabel);
-          return (List<T>) neo4jClient.query(cypher)
-                  .bind(vertex).to("id")
-                  .fetchAs(type)
-                   .mappedBy((typeSystem, record) -> neo4jTemplate.findById(record.get("b").asNode().elementId(), type).orElse(null))
-                  .all().stream().filter(Objects::nonNull).toList();
+        String cypher = String.format(
+                "MATCH (a)-[:`%s`]-(b) WHERE id(a) = $id RETURN DISTINCT b", edgeLabel);
+        return neo4jTemplate.findAll(cypher, Collections.singletonMap("id", vertex), type);
     }
 
     @Override
     public <T> List<T> traverseWithDepth(Class<T> type, Object from, String edgeLabel, int depth) {
-          String cypher = String.format(
-                "MATCH (a)-[:`%s`*1..%d]->(b) WHERE elementId(a) = $id RETURN b", edgeLabel, depth);
-           return (List<T>) neo4jClient.query(cypher)
-                  .bind(from).to("id")
-                  .fetchAs(type)
-                   .mappedBy((typeSystem, record) -> neo4jTemplate.findById(record.get("b").asNode().elementId(), type).orElse(null))
-                  .all().stream().filter(Objects::nonNull).toList();
+        String cypher = String.format(
+                "MATCH (a)-[:`%s`*1..%d]->(b) WHERE id(a) = $id RETURN DISTINCT b", edgeLabel, depth);
+        return neo4jTemplate.findAll(cypher, Collections.singletonMap("id", from), type);
     }
 
 
 
+    @Override
+    public void forEachEdge(String edgeLabel, String key, BiConsumer<Object, Object> consumer) {
+        String cypher = String.format(
+                "MATCH (a)-[:`%s`]->(b) RETURN a.%s AS from, b.%s AS to", edgeLabel, key, key);
+        neo4jClient.delegateTo(runner -> {
+            Result result = runner.run(cypher);
+            while (result.hasNext()) {
+                Record record = result.next();
+                consumer.accept(record.get("from").asObject(), record.get("to").asObject());
+            }
+            return Optional.empty();
+        }).run();
+    }
+
+    // COUNT {} on a single bound node is planned as a degree lookup, no relationship scan
+    @Override
+    public long countEdges(Object vertexId, String edgeLabel, Direction direction) {
+        String cypher = String.format("MATCH (a) WHERE id(a) = $id RETURN COUNT { %s }",
+                neighbourPattern(edgeLabel, direction));
+        return neo4jClient.query(cypher)
+                .bind(vertexId).to("id")
+                .fetchAs(Long.class)
+                .one().orElse(0L);
+    }
+
+    @Override
+    public void expandNeighbours(String vertexLabel, String key, Collection<?> keys, String edgeLabel,
+                                 Direction direction, BiConsumer<Object, Object> consumer) {
+        String cypher = String.format("UNWIND $keys AS k MATCH (a:`%s` {%s: k}) MATCH %s RETURN k AS from, b.%s AS to",
+                vertexLabel, key, neighbourPattern(edgeLabel, direction), key);
+        List<Object> params = keys.stream().map(this::convertValue).toList();
+        neo4jClient.delegateTo(runner -> {
+            Result result = runner.run(cypher, Map.of("keys", params));
+            while (result.hasNext()) {
+                Record record = result.next();
+                consumer.accept(record.get("from").asObject(), record.get("to").asObject());
+            }
+            return Optional.empty();
+        }).run();
+    }
+
     @Override
     public long countEdges(Object vertexId, String edgeLabel) {
          String cypher = String.format(
@@ -341,6 +485,58 @@ public class Neo4jGraphRepository implements GraphRepository {
                 .orElse(0L);
     }
 
+    /**
+     * Sends {@code rows} as the {@code $rows} parameter of one statement per chunk, so a bulk
+     * write costs one round trip per {@code graph.bulk.chunk-size} rows instead of one per row.
+     */
+    private BulkWriteResult writeInChunks(String operation, String cypher, List<?> rows, Map<String, Object> params) {
+        return writeInChunks(operation, cypher, rows, params, false);
+    }
+
+    /**
+     * With {@code counted} the statement returns the rows it wrote as a single count, which is
+     * reported instead of the rows sent.
+     */
+    private BulkWriteResult writeInChunks(String operation, String cypher, List<?> rows, Map<String, Object> params,
+                                          boolean counted) {
+        if (rows.isEmpty()) {
+            return BulkWriteResult.EMPTY;
+        }
+        List<? extends List<?>> chunks = BatchUtils.partition(rows, bulkChunkSize);
+        long start = System.nanoTime();
+        long maxChunkMs = 0;
+        int written = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            long chunkStart = System.nanoTime();
+            Neo4jClient.RunnableSpec statement = neo4jClient.query(cypher)
+                    .bindAll(params)
+                    .bind(chunks.get(i)).to("rows");
+            if (counted) {
+                written += statement.fetchAs(Long.class).one().orElse(0L).intValue();
+            } else {
+                statement.run();
+                written += chunks.get(i).size();
+            }
+            long chunkMs = (System.nanoTime() - chunkStart) / 1_000_000;
+            maxChunkMs = Math.max(maxChunkMs, chunkMs);
+            log.debug("Bulk {}: chunk {}/{} of {} rows written in {} ms",
+                    operation, i + 1, chunks.size(), chunks.get(i).size(), chunkMs);
+        }
+        BulkWriteResult result = new BulkWriteResult(written, chunks.size(),
+                (System.nanoTime() - start) / 1_000_000, maxChunkMs);
+        log.info("Bulk {}: {} of {} rows in {} chunks, {} ms total, slowest chunk {} ms",
+                operation, result.rows(), rows.size(), result.chunks(), result.elapsedMs(), result.maxChunkMs());
+        return result;
+    }
+
+    private String neighbourPattern(String edgeLabel, Direction direction) {
+        return switch (direction) {
+            case OUT -> String.format("(a)-[:`%s`]->(b)", edgeLabel);
+            case IN -> String.format("(a)<-[:`%s`]-(b)", edgeLabel);
+            case BOTH -> String.format("(a)-[:`%s`]-(b)", edgeLabel);
+        };
+    }
+
     private Object convertValue(Object value) {
         if (value instanceof UUID uuid) {
             return uuid.toString();
@@ -7,6 +7,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
@@ -36,13 +37,32 @@ public class OGMProcessor {
     public void saveOrUpdate(GraphTraversalSource g, Object entity, Object id) {
     }
 
+    /**
+     * Saves the entities in as few traversals as possible: plain vertices are grouped by label
+     * and sent as one inject/unfold insert, only entities carrying edges go through {@link #saveEntity}.
+     */
     public <T> List<T> saveAll(GraphTraversalSource g, List<T> entities) {
-        List<T> saved = new ArrayList<>();
+        Map<String, List<Map<String, Object>>> byLabel = new LinkedHashMap<>();
         for (T entity : entities) {
-            saveEntity(g, entity);
-            saved.add(entity);
+            if (mapper.extractEdges(entity).isEmpty()) {
+                byLabel.computeIfAbsent(mapper.resolveLabel(entity.getClass()), l -> new ArrayList<>())
+                        .add(mapper.extractProperties(entity));
+            } else {
+                saveEntity(g, entity);
+            }
         }
-        return saved;
+        byLabel.forEach((label, rows) -> queryExecution.addVertices(g, label, rows));
+        return new ArrayList<>(entities);
+    }
+
+    public <T> void upsertAll(GraphTraversalSource g, String key, List<T> entities) {
+        Map<String, List<Map<String, Object>>> byLabel = new LinkedHashMap<>();
+        for (T entity : entities) {
+            Map<String, Object> props = mapper.extractProperties(entity);
+            props.remove("id");
+            byLabel.computeIfAbsent(mapper.resolveLabel(entity.getClass()), l -> new ArrayList<>()).add(props);
+        }
+        byLabel.forEach((label, rows) -> queryExecution.upsertVertices(g, label, key, rows));
     }
 
     public <T> Optional<T> findById(GraphTraversalSource g, Class<T> type, Object id) {
@@ -69,6 +89,20 @@ public class OGMProcessor {
         return entities;
     }
 
+    public <T> CursorPage<T> findPage(GraphTraversalSource g, Class<T> type, String orderKey, String cursor, int limit) {
+        String label = mapper.resolveLabel(type);
+        Object after = toKeyValue(CursorPage.decodeCursor(cursor));
+        List<Map<Object, Object>> maps = queryExecution.findPage(g, label, orderKey, after, limit + 1);
+        List<T> entities = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, maps.size()); i++) {
+            entities.add(mapper.populateFromMap(maps.get(i), type));
+        }
+        if (maps.size() <= limit) {
+            return new CursorPage<>(entities, null);
+        }
+        return new CursorPage<>(entities, CursorPage.encodeCursor(maps.get(limit - 1).get(orderKey)));
+    }
+
     public <T> Optional<T> findByProperty(GraphTraversalSource g, Class<T> type, String key, Object value) {
         String label = mapper.resolveLabel(type);
         Optional<Map<Object, Object>> map = queryExecution.findByProperty(g, label, key, value);
@@ -158,4 +192,14 @@ public class OGMProcessor {
         String label = mapper.resolveLabel(type);
         queryExecution.deleteByProperty(g, label, key, value);
     }
+
+    // Keys are stored with their native type, so UUID cursors must be compared as UUIDs again
+    private Object toKeyValue(String key) {
+        if (key == null) return null;
+        try {
+            return UUID.fromString(key);
+        } catch (IllegalArgumentException e) {
+            return key;
+        }
+    }
 }
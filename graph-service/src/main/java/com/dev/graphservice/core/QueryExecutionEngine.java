@@ -3,20 +3,28 @@ package com.dev.graphservice.core;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 public interface QueryExecutionEngine {
 
     Object save(GraphTraversalSource g, Object entityOrMap);
 
+    void addVertices(GraphTraversalSource g, String label, List<Map<String, Object>> rows);
+
+    void upsertVertices(GraphTraversalSource g, String label, String key, List<Map<String, Object>> rows);
+
     Optional<Map<Object, Object>> findById(GraphTraversalSource g, Object id);
 
     List<Map<Object, Object>> findAll(GraphTraversalSource g, String label);
 
     List<Map<Object, Object>> findAll(GraphTraversalSource g, String label, int limit, int offset);
 
+    List<Map<Object, Object>> findPage(GraphTraversalSource g, String label, String orderKey, Object after, int limit);
+
     Optional<Map<Object, Object>> findByProperty(GraphTraversalSource g, String label, String key, Object value);
 
     List<Map<Object, Object>> findByProperties(GraphTraversalSource g, String label, Map<String, Object> properties);
@@ -34,6 +42,12 @@ public interface QueryExecutionEngine {
 
     void addEdgeBetween(GraphTraversalSource g, Object fromId, Object toId, String edgeLabel, Direction direction);
 
+    boolean mergeEdgeBetween(GraphTraversalSource g, Object fromId, Object toId, String edgeLabel);
+
+    void mergeEdges(GraphTraversalSource g, String edgeLabel, List<EdgeRow> edges);
+
+    Map<Object, Object> resolveIds(GraphTraversalSource g, String label, String key, Collection<?> values);
+
     void addEdgesBetween(GraphTraversalSource g, Object fromId, List<Object> toIdList, String edgeLabel);
 
     List<Map<Object, Object>> traverse(GraphTraversalSource g, String label, Map<String, Object> props, String edgeLabel);
@@ -42,21 +56,33 @@ public interface QueryExecutionEngine {
 
     List<Map<Object, Object>> traverseIncoming(GraphTraversalSource g, Object to, String edgeLabel);
 
+    List<Object> neighbourValues(GraphTraversalSource g, Object vertexId, String edgeLabel, Direction direction, String property);
+
+    List<Object> neighbourValuesAfter(GraphTraversalSource g, Object vertexId, String edgeLabel, Direction direction,
+                                      String property, Object after, int limit);
+
     List<Map<Object, Object>> traverseBoth(GraphTraversalSource g, Object vertexId, String edgeLabel);
 
     List<Map<Object, Object>> traverseWithDepth(GraphTraversalSource g, Object from, String edgeLabel, int depth);
 
+    void forEachEdge(GraphTraversalSource g, String edgeLabel, String key, BiConsumer<Object, Object> consumer);
+
+    void expandNeighbours(GraphTraversalSource g, String vertexLabel, String key, Collection<?> keys, String edgeLabel,
+                          Direction direction, BiConsumer<Object, Object> consumer);
+
     List<List<Object>> getPath(GraphTraversalSource g, Object from, Object to, String edgeLabel, int maxDepth);
 
     long countEdges(GraphTraversalSource g, Object vertexId, String edgeLabel);
 
+    long countEdges(GraphTraversalSource g, Object vertexId, String edgeLabel, Direction direction);
+
     void delete(GraphTraversalSource g, Object id);
 
     void deleteAll(GraphTraversalSource g, String label);
 
     void deleteByProperty(GraphTraversalSource g, String label, String key, Object value);
 
-    void deleteEdge(GraphTraversalSource g, Object fromId, Object toId, String edgeLabel);
+    boolean deleteEdge(GraphTraversalSource g, Object fromId, Object toId, String edgeLabel);
 
     void deleteAllEdges(GraphTraversalSource g, Object vertexId, String edgeLabel);
 
@@ -1,14 +1,20 @@
 package com.dev.graphservice.core;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.tinkerpop.gremlin.process.traversal.Merge;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.Column;
 import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 
 @Slf4j
 @Component
@@ -29,6 +35,47 @@ public class QueryExecutionEngineImpl implements QueryExecutionEngine {
         return t.id().next();
     }
 
+    /**
+     * Inserts every row as a new vertex with one {@code inject(rows).unfold().addV()} traversal, so
+     * the traversal stays the same size whatever the batch size. Each row's entries are copied
+     * onto its vertex from {@code select("row")}.
+     */
+    @Override
+    public void addVertices(GraphTraversalSource g, String label, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) return;
+        g.inject(rows).unfold().as("row")
+                .addV(label).as("v")
+                .sideEffect(__.select("row").unfold().as("kv")
+                        .select("v")
+                        .property(__.select("kv").by(Column.keys), __.select("kv").by(Column.values)))
+                .iterate();
+    }
+
+    /**
+     * Upserts the rows keyed on {@code key} with one {@code inject(rows).unfold().mergeV()} traversal.
+     * New vertices get every property, existing ones get everything but the key overwritten.
+     */
+    @Override
+    public void upsertVertices(GraphTraversalSource g, String label, String key, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) return;
+        List<Map<String, Object>> merges = new ArrayList<>(rows.size());
+        for (Map<String, Object> props : rows) {
+            Map<Object, Object> match = new HashMap<>();
+            match.put(T.label, label);
+            match.put(key, props.get(key));
+            Map<Object, Object> create = new HashMap<>(props);
+            create.put(T.label, label);
+            Map<Object, Object> update = new HashMap<>(props);
+            update.remove(key);
+            merges.add(Map.of("match", match, "create", create, "update", update));
+        }
+        g.inject(merges).unfold().as("row")
+                .mergeV(__.select("row").select("match"))
+                .option(Merge.onCreate, __.select("row").select("create"))
+                .option(Merge.onMatch, __.select("row").select("update"))
+                .iterate();
+    }
+
     @Override
     public Optional<Map<Object, Object>> findById(GraphTraversalSource g, Object id) {
         return g.V(id).elementMap().tryNext();
@@ -44,6 +91,13 @@ public class QueryExecutionEngineImpl implements QueryExecutionEngine {
         return g.V().hasLabel(label).elementMap().range(offset, offset + limit).toList();
     }
 
+    @Override
+    public List<Map<Object, Object>> findPage(GraphTraversalSource g, String label, String orderKey, Object after, int limit) {
+        var t = g.V().hasLabel(label);
+        if (after != null) t = t.has(orderKey, P.gt(after));
+        return t.order().by(orderKey).limit(limit).elementMap().toList();
+    }
+
     @Override
     public Optional<Map<Object, Object>> findByProperty(GraphTraversalSource g, String label, String key, Object value) {
         return g.V().hasLabel(label).has(key, value).elementMap().tryNext();
@@ -107,6 +161,55 @@ public class QueryExecutionEngineImpl implements QueryExecutionEngine {
         }
     }
 
+    /**
+     * Adds the {@code fromId -> toId} edge unless it exists, returns whether it was created.
+     */
+    @Override
+    public boolean mergeEdgeBetween(GraphTraversalSource g, Object fromId, Object toId, String edgeLabel) {
+        return g.V(fromId).as("a").V(toId)
+                .coalesce(__.inE(edgeLabel).where(__.outV().as("a")).constant(false),
+                        __.addE(edgeLabel).from("a").constant(true))
+                .tryNext()
+                .orElse(false);
+    }
+
+    /**
+     * Merges one edge per row between the given vertex ids with a single
+     * {@code inject(rows).unfold().mergeE()} traversal, so re-running a batch creates no duplicates.
+     */
+    @Override
+    public void mergeEdges(GraphTraversalSource g, String edgeLabel, List<EdgeRow> edges) {
+        if (edges.isEmpty()) return;
+        List<Map<Object, Object>> merges = new ArrayList<>(edges.size());
+        for (EdgeRow edge : edges) {
+            Map<Object, Object> match = new HashMap<>();
+            match.put(T.label, edgeLabel);
+            match.put(Direction.OUT, edge.from());
+            match.put(Direction.IN, edge.to());
+            merges.add(match);
+        }
+        g.inject(merges).unfold().as("row")
+                .mergeE(__.select("row"))
+                .iterate();
+    }
+
+    /**
+     * Maps each {@code key} value to its vertex id in one indexed {@code within} lookup.
+     * Values without a matching vertex are left out of the result.
+     */
+    @Override
+    public Map<Object, Object> resolveIds(GraphTraversalSource g, String label, String key, Collection<?> values) {
+        Map<Object, Object> ids = new HashMap<>(values.size() * 2);
+        if (values.isEmpty()) return ids;
+        GraphTraversal<Vertex, Map<String, Object>> t = g.V().hasLabel(label).has(key, P.within(values))
+                .project("key", "id").by(key).by(T.id);
+        while (t.hasNext()) {
+            Map<String, Object> row = t.next();
+            ids.put(row.get("key"), row.get("id"));
+        }
+        return ids;
+    }
+
     @Override
     public void addEdgesBetween(GraphTraversalSource g, Object fromId, List<Object> toIdList, String edgeLabel) {
         for (Object toId : toIdList) {
@@ -148,6 +251,27 @@ public class QueryExecutionEngineImpl implements QueryExecutionEngine {
         return List.of();
     }
 
+    @Override
+    public List<Object> neighbourValues(GraphTraversalSource g, Object vertexId, String edgeLabel, Direction direction, String property) {
+        return neighbours(g, vertexId, edgeLabel, direction).values(property).toList();
+    }
+
+    @Override
+    public List<Object> neighbourValuesAfter(GraphTraversalSource g, Object vertexId, String edgeLabel, Direction direction,
+                                             String property, Object after, int limit) {
+        var t = neighbours(g, vertexId, edgeLabel, direction);
+        if (after != null) t = t.has(property, P.gt(after));
+        return t.values(property).dedup().order().limit(limit).toList();
+    }
+
+    private GraphTraversal<Vertex, Vertex> neighbours(GraphTraversalSource g, Object vertexId, String edgeLabel, Direction direction) {
+        return switch (direction) {
+            case OUT -> g.V(vertexId).out(edgeLabel);
+            case IN -> g.V(vertexId).in(edgeLabel);
+            case BOTH -> g.V(vertexId).both(edgeLabel).dedup();
+        };
+    }
+
     @Override
     public List<Map<Object, Object>> traverseBoth(GraphTraversalSource g, Object vertexId, String edgeLabel) {
         if (vertexId instanceof Long || vertexId instanceof String) {
@@ -162,12 +286,31 @@ public class QueryExecutionEngineImpl implements QueryExecutionEngine {
         return g.V(from).repeat(__.out(edgeLabel)).times(depth).elementMap().toList();
     }
 
+    @Override
+    public void forEachEdge(GraphTraversalSource g, String edgeLabel, String key, BiConsumer<Object, Object> consumer) {
+        var t = g.E().hasLabel(edgeLabel)
+                .project("from", "to")
+                .by(__.outV().values(key))
+                .by(__.inV().values(key));
+        while (t.hasNext()) {
+            Map<String, Object> row = t.next();
+            consumer.accept(row.get("from"), row.get("to"));
+        }
+    }
+
     @Override
     public List<List<Object>> getPath(GraphTraversalSource g, Object from, Object to, String edgeLabel, int maxDepth) {
         if (!(from instanceof Long || from instanceof String) || !(to instanceof Long || to instanceof String)) {
             return List.of();
         }
-        var paths = g.V(from).repeat(__.out(edgeLabel)).times(maxDepth).until(__.hasId(to)).path().toList();
+        // simplePath prunes cycles and limit(1) stops at the first, shortest, hit of the breadth-first repeat
+        var paths = g.V(from)
+                .repeat(__.out(edgeLabel).simplePath())
+                .until(__.or(__.hasId(to), __.loops().is(maxDepth)))
+                .hasId(to)
+                .limit(1)
+                .path()
+                .toList();
         List<List<Object>> result = new ArrayList<>();
         for (var path : paths) {
             result.add(path.objects());
@@ -175,11 +318,31 @@ public class QueryExecutionEngineImpl implements QueryExecutionEngine {
         return result;
     }
 
+    @Override
+    public void expandNeighbours(GraphTraversalSource g, String vertexLabel, String key, Collection<?> keys, String edgeLabel,
+                                 Direction direction, BiConsumer<Object, Object> consumer) {
+        if (keys.isEmpty()) return;
+        GraphTraversal<Vertex, Map<String, Object>> t = g.V().hasLabel(vertexLabel).has(key, P.within(keys)).as("a")
+                .to(direction, edgeLabel)
+                .project("from", "to")
+                .by(__.select("a").values(key))
+                .by(__.values(key));
+        while (t.hasNext()) {
+            Map<String, Object> row = t.next();
+            consumer.accept(row.get("from"), row.get("to"));
+        }
+    }
+
     @Override
     public long countEdges(GraphTraversalSource g, Object vertexId, String edgeLabel) {
         return g.V(vertexId).bothE(edgeLabel).count().next();
     }
 
+    @Override
+    public long countEdges(GraphTraversalSource g, Object vertexId, String edgeLabel, Direction direction) {
+        return g.V(vertexId).toE(direction, edgeLabel).count().next();
+    }
+
     @Override
     public void delete(GraphTraversalSource g, Object id) {
         g.V(id).drop().iterate();
@@ -196,8 +359,10 @@ public class QueryExecutionEngineImpl implements QueryExecutionEngine {
     }
 
     @Override
-    public void deleteEdge(GraphTraversalSource g, Object fromId, Object toId, String edgeLabel) {
-        g.V(fromId).outE(edgeLabel).where(__.inV().hasId(toId)).drop().iterate();
+    public boolean deleteEdge(GraphTraversalSource g, Object fromId, Object toId, String edgeLabel) {
+        return g.V(fromId).outE(edgeLabel).where(__.inV().hasId(toId))
+                .sideEffect(__.drop())
+                .count().next() > 0;
     }
 
     @Override
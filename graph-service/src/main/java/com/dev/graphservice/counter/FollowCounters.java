@@ -0,0 +1,98 @@
+package com.dev.graphservice.counter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Maintained follower / following counters. A user's counts are seeded from the graph's degree
+ * count on first read and from then on moved by {@link #followed} and {@link #unfollowed}, so a
+ * profile view never counts edges. Only users that are currently cached are updated, anyone else
+ * is seeded fresh on the next read. Entries expire after {@code ttl}, which also bounds drift
+ * from writes that bypass {@code UserService}. Callers only report edges that were actually
+ * created or deleted, so a repeated follow request does not move the counts.
+ */
+@Component
+public class FollowCounters {
+
+    private final Cache<UUID, Counts> cache;
+
+    public FollowCounters(@Value("${app.follow-counts.max-users:100000}") long maxUsers,
+                          @Value("${app.follow-counts.ttl:1h}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Returns the counts of {@code userId}, seeding them through {@code loader} with exact counts on a miss.
+     */
+    public FollowCounts get(UUID userId, Function<UUID, FollowCounts> loader) {
+        return cache.get(userId, id -> {
+            FollowCounts seed = loader.apply(id);
+            return new Counts(seed.followers(), seed.followings());
+        }).snapshot(userId);
+    }
+
+    public void followed(UUID fromUserId, UUID toUserId) {
+        Counts from = cache.getIfPresent(fromUserId);
+        if (from != null) {
+            from.followingAdded();
+        }
+        Counts to = cache.getIfPresent(toUserId);
+        if (to != null) {
+            to.followerAdded();
+        }
+    }
+
+    public void unfollowed(UUID fromUserId, UUID toUserId) {
+        Counts from = cache.getIfPresent(fromUserId);
+        if (from != null) {
+            from.followingRemoved();
+        }
+        Counts to = cache.getIfPresent(toUserId);
+        if (to != null) {
+            to.followerRemoved();
+        }
+    }
+
+    public void remove(UUID userId) {
+        cache.invalidate(userId);
+    }
+
+    private static final class Counts {
+        private long followers;
+        private long followings;
+
+        Counts(long followers, long followings) {
+            this.followers = followers;
+            this.followings = followings;
+        }
+
+        synchronized void followingAdded() {
+            followings++;
+        }
+
+        synchronized void followingRemoved() {
+            followings = Math.max(0, followings - 1);
+        }
+
+        synchronized void followerAdded() {
+            followers++;
+        }
+
+        synchronized void followerRemoved() {
+            followers = Math.max(0, followers - 1);
+        }
+
+        synchronized FollowCounts snapshot(UUID userId) {
+            return new FollowCounts(userId, followers, followings);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.dev.graphservice.counter;
+
+import java.util.UUID;
+
+/**
+ * Follower and following counts of a user.
+ */
+public record FollowCounts(UUID userId, long followers, long followings) {
+}
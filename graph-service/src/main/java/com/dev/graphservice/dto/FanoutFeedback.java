@@ -0,0 +1,6 @@
+package com.dev.graphservice.dto;
+
+/**
+ * Insert cost of push fan-out batches as measured by notification-service over one reporting interval.
+ */
+public record FanoutFeedback(long batches, long rows, long insertMillis) {}
@@ -0,0 +1,366 @@
+package com.dev.graphservice.importer;
+
+import com.dev.graphservice.core.BulkWriteResult;
+import com.dev.graphservice.core.EdgeRow;
+import com.dev.graphservice.core.GraphRepository;
+import com.dev.graphservice.counter.FollowCounters;
+import com.dev.graphservice.index.FollowGraphIndex;
+import com.dev.graphservice.model.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tinkerpop.gremlin.driver.exception.ResponseException;
+import org.neo4j.driver.exceptions.TransientException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bulk loading of users and follow edges from NDJSON or CSV streams of any size.
+ * <p>
+ * The body is parsed line by line into chunks of {@code app.import.chunk-size} rows, each chunk
+ * goes through the batched repository writes ({@link GraphRepository#upsertAll},
+ * {@link GraphRepository#createEdgesByProperty}, which resolve endpoints per chunk). At most
+ * {@code app.import.max-in-flight} chunks are written concurrently, the reader blocks until one
+ * finishes, so memory stays bounded whatever the upload size. Unlike {@code followUser}, no
+ * follow notification is published.
+ * <p>
+ * Users: {@code userId, name, email}. Follows: {@code from, to}, meaning {@code from} follows {@code to}.
+ * CSV fields may be double-quoted but must not span lines. Unparseable lines are counted as
+ * rejected and skipped, so are edges whose endpoints do not exist, which the graph store drops.
+ * <p>
+ * A chunk that fails with a transient error (deadlock, lock contention, temporary backend failure)
+ * is retried up to {@code app.import.retry.attempts} times with exponential back-off starting at
+ * {@code app.import.retry.backoff}. Both writes are merges, so a retried chunk does not duplicate rows.
+ */
+@Slf4j
+@Service
+public class GraphImportService {
+
+    private static final String USER_LABEL = "User";
+    private static final String USER_KEY = "userId";
+
+    private final GraphRepository repo;
+    private final ObjectMapper objectMapper;
+    private final Optional<FollowGraphIndex> followGraphIndex;
+    private final FollowCounters followCounters;
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final int progressEvery;
+    private final int retryAttempts;
+    private final Duration retryBackoff;
+    private final Map<UUID, Progress> running = new ConcurrentHashMap<>();
+
+    public GraphImportService(GraphRepository repo,
+                              ObjectMapper objectMapper,
+                              Optional<FollowGraphIndex> followGraphIndex,
+                              FollowCounters followCounters,
+                              @Value("${app.import.chunk-size:5000}") int chunkSize,
+                              @Value("${app.import.max-in-flight:4}") int maxInFlight,
+                              @Value("${app.import.progress-every:100}") int progressEvery,
+                              @Value("${app.import.retry.attempts:3}") int retryAttempts,
+                              @Value("${app.import.retry.backoff:200ms}") Duration retryBackoff) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+        this.followGraphIndex = followGraphIndex;
+        this.followCounters = followCounters;
+        this.executor = Executors.newFixedThreadPool(maxInFlight);
+        this.chunkSize = chunkSize;
+        this.maxInFlight = maxInFlight;
+        this.progressEvery = progressEvery;
+        this.retryAttempts = retryAttempts;
+        this.retryBackoff = retryBackoff;
+    }
+
+    public ImportReport importUsers(InputStream body, ImportFormat format) throws IOException {
+        return run("users", body, format, GraphImportService::toUser,
+                chunk -> repo.upsertAll(User.class, USER_KEY, chunk),
+                chunk -> {});
+    }
+
+    public ImportReport importFollows(InputStream body, ImportFormat format) throws IOException {
+        ImportReport report = run("follows", body, format, GraphImportService::toEdge,
+                chunk -> repo.createEdgesByProperty(USER_LABEL, USER_KEY, FollowGraphIndex.EDGE_LABEL, chunk),
+                chunk -> chunk.forEach(edge -> {
+                    followCounters.remove((UUID) edge.from());
+                    followCounters.remove((UUID) edge.to());
+                }));
+        if (report.written() > 0) {
+            // The edges bypassed UserService, reload the index once rather than replaying every edge
+            followGraphIndex.ifPresent(index -> CompletableFuture.runAsync(index::rebuild, executor)
+                    .exceptionally(ex -> {
+                        log.error("Follow graph index reload after import {} failed", report.importId(), ex);
+                        return null;
+                    }));
+        }
+        return report;
+    }
+
+    /**
+     * Progress of the imports currently running on this node.
+     */
+    public List<ImportReport> runningImports() {
+        return running.values().stream().map(Progress::report).toList();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <R> ImportReport run(String kind,
+                                 InputStream body,
+                                 ImportFormat format,
+                                 Function<Function<String, String>, R> parser,
+                                 Function<List<R>, BulkWriteResult> writer,
+                                 Consumer<List<R>> onWritten) throws IOException {
+        Progress progress = new Progress(UUID.randomUUID(), kind, format);
+        running.put(progress.importId, progress);
+        log.info("Import {} of {} started ({})", progress.importId, kind, format);
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Map<String, Integer> header = format == ImportFormat.CSV ? readHeader(reader) : null;
+            List<R> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                progress.lines.increment();
+                try {
+                    chunk.add(parser.apply(header != null ? csvRow(line, header) : jsonRow(line)));
+                } catch (RuntimeException | IOException ex) {
+                    progress.rejected.increment();
+                    log.debug("Import {} rejected line {}: {}", progress.importId, progress.lines.sum(), ex.getMessage());
+                    continue;
+                }
+                if (chunk.size() == chunkSize) {
+                    submit(chunk, writer, onWritten, inFlight, progress);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(chunk, writer, onWritten, inFlight, progress);
+            }
+        } finally {
+            // Wait for the chunks still being written before reporting
+            inFlight.acquireUninterruptibly(maxInFlight);
+            progress.completed = true;
+            running.remove(progress.importId);
+        }
+
+        ImportReport report = progress.report();
+        log.info("Import {} of {} completed: {} lines, {} written, {} rejected, {} failed in {} ms ({} rows/s)",
+                report.importId(), kind, report.lines(), report.written(), report.rejected(), report.failed(),
+                report.elapsedMs(), report.rowsPerSecond());
+        return report;
+    }
+
+    private <R> void submit(List<R> chunk,
+                            Function<List<R>, BulkWriteResult> writer,
+                            Consumer<List<R>> onWritten,
+                            Semaphore inFlight,
+                            Progress progress) {
+        // Blocks the reader while max-in-flight chunks are being written
+        inFlight.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    BulkWriteResult result = writeWithRetry(chunk, writer, progress);
+                    progress.written.add(result.rows());
+                    progress.rejected.add(chunk.size() - result.rows());
+                    onWritten.accept(chunk);
+                } catch (RuntimeException ex) {
+                    progress.failed.add(chunk.size());
+                    log.warn("Import {} failed to write a chunk of {} rows: {}",
+                            progress.importId, chunk.size(), ex.getMessage());
+                } finally {
+                    progress.chunks.increment();
+                    inFlight.release();
+                    if (progress.chunks.sum() % progressEvery == 0) {
+                        ImportReport report = progress.report();
+                        log.info("Import {} of {}: {} written, {} rejected, {} failed, {} rows/s",
+                                report.importId(), report.kind(), report.written(), report.rejected(),
+                                report.failed(), report.rowsPerSecond());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            inFlight.release();
+            throw ex;
+        }
+    }
+
+    private <R> BulkWriteResult writeWithRetry(List<R> chunk,
+                                               Function<List<R>, BulkWriteResult> writer,
+                                               Progress progress) {
+        long backoffMs = retryBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return writer.apply(chunk);
+            } catch (RuntimeException ex) {
+                if (attempt > retryAttempts || !isTransient(ex)) {
+                    throw ex;
+                }
+                log.debug("Import {} retrying a chunk of {} rows in {} ms (attempt {}): {}",
+                        progress.importId, chunk.size(), backoffMs, attempt, ex.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+                backoffMs *= 2;
+            }
+        }
+    }
+
+    /**
+     * Deadlocks and lock timeouts surface as Spring's transient exceptions or the Neo4j driver's
+     * {@link TransientException}; JanusGraph behind Gremlin Server only reports the remote class names.
+     */
+    private static boolean isTransient(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof TransientDataAccessException || t instanceof TransientException) {
+                return true;
+            }
+            if (t instanceof ResponseException response && response.getRemoteExceptionHierarchy()
+                    .map(names -> names.stream().anyMatch(GraphImportService::isTransientRemote))
+                    .orElse(false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTransientRemote(String exceptionClass) {
+        return exceptionClass.endsWith("TemporaryBackendException")
+                || exceptionClass.endsWith("TemporaryLockingException")
+                || exceptionClass.endsWith("PermanentLockingException");
+    }
+
+    private Function<String, String> jsonRow(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return column -> {
+            JsonNode value = node.get(column);
+            return value == null || value.isNull() ? null : value.asText();
+        };
+    }
+
+    private static Map<String, Integer> readHeader(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return Map.of();
+        }
+        List<String> columns = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim(), i);
+        }
+        return header;
+    }
+
+    private static Function<String, String> csvRow(String line, Map<String, Integer> header) {
+        List<String> values = splitCsv(line);
+        return column -> {
+            Integer i = header.get(column);
+            if (i == null || i >= values.size()) {
+                return null;
+            }
+            String value = values.get(i).trim();
+            return value.isEmpty() ? null : value;
+        };
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static User toUser(Function<String, String> row) {
+        return User.builder()
+                .userId(UUID.fromString(required(row, "userId")))
+                .name(row.apply("name"))
+                .email(row.apply("email"))
+                .build();
+    }
+
+    private static EdgeRow toEdge(Function<String, String> row) {
+        return new EdgeRow(UUID.fromString(required(row, "from")), UUID.fromString(required(row, "to")));
+    }
+
+    private static String required(Function<String, String> row, String column) {
+        String value = row.apply(column);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        return value;
+    }
+
+    private static final class Progress {
+        private final UUID importId;
+        private final String kind;
+        private final ImportFormat format;
+        private final long start = System.nanoTime();
+        private final LongAdder lines = new LongAdder();
+        private final LongAdder written = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder chunks = new LongAdder();
+        private volatile boolean completed;
+
+        Progress(UUID importId, String kind, ImportFormat format) {
+            this.importId = importId;
+            this.kind = kind;
+            this.format = format;
+        }
+
+        ImportReport report() {
+            long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            long rows = written.sum();
+            return new ImportReport(importId, kind, format, lines.sum(), rows, rejected.sum(), failed.sum(),
+                    chunks.sum(), elapsedMs, rows * 1000 / elapsedMs, completed);
+        }
+    }
+}
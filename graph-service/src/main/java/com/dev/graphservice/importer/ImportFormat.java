@@ -0,0 +1,17 @@
+package com.dev.graphservice.importer;
+
+/**
+ * Line formats accepted by the bulk import endpoints.
+ * NDJSON holds one JSON object per line, CSV starts with a header line naming the columns.
+ */
+public enum ImportFormat {
+    NDJSON,
+    CSV;
+
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType != null && contentType.toLowerCase().contains("csv")) {
+            return CSV;
+        }
+        return NDJSON;
+    }
+}
@@ -0,0 +1,19 @@
+package com.dev.graphservice.importer;
+
+import java.util.UUID;
+
+/**
+ * Progress of a bulk import: lines parsed, rows written or rejected, and the write throughput so far.
+ * Rejected rows could not be parsed, failed rows belong to chunks the graph store did not accept.
+ */
+public record ImportReport(UUID importId,
+                           String kind,
+                           ImportFormat format,
+                           long lines,
+                           long written,
+                           long rejected,
+                           long failed,
+                           long chunks,
+                           long elapsedMs,
+                           long rowsPerSecond,
+                           boolean completed) {}
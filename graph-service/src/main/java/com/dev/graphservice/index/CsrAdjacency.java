@@ -0,0 +1,245 @@
+package com.dev.graphservice.index;
+
+import java.util.Arrays;
+
+/**
+ * Compressed sparse row adjacency over dense int vertex ids.
+ * <p>
+ * The base arrays hold every row's neighbours sorted in one {@code int[]}. Writes go to two
+ * sorted {@code long[]} delta buffers (edges packed as {@code src << 32 | dst}) and are folded
+ * into the base once the buffers grow past the compaction threshold.
+ * <p>
+ * Invariants: {@code removed} only ever holds base edges, {@code added} never does.
+ * Not thread-safe, {@link FollowGraphIndex} guards access.
+ */
+final class CsrAdjacency {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final int compactionThreshold;
+
+    private int rows;
+    private int[] offsets = new int[1];
+    private int[] targets = EMPTY;
+
+    private long[] added = new long[16];
+    private int addedSize;
+    private long[] removed = new long[16];
+    private int removedSize;
+
+    CsrAdjacency(int compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Builds the base arrays from parallel edge lists with a counting sort, dropping duplicates.
+     */
+    static CsrAdjacency build(int rows, int[] src, int[] dst, int edgeCount, int compactionThreshold) {
+        CsrAdjacency adjacency = new CsrAdjacency(compactionThreshold);
+        int[] offsets = new int[rows + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[src[i] + 1]++;
+        }
+        for (int r = 0; r < rows; r++) {
+            offsets[r + 1] += offsets[r];
+        }
+        int[] cursor = Arrays.copyOf(offsets, rows);
+        int[] targets = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            targets[cursor[src[i]]++] = dst[i];
+        }
+
+        int write = 0;
+        int[] compacted = new int[rows + 1];
+        for (int r = 0; r < rows; r++) {
+            int start = offsets[r];
+            int end = offsets[r + 1];
+            Arrays.sort(targets, start, end);
+            compacted[r] = write;
+            for (int i = start; i < end; i++) {
+                if (i == start || targets[i] != targets[i - 1]) {
+                    targets[write++] = targets[i];
+                }
+            }
+        }
+        compacted[rows] = write;
+
+        adjacency.rows = rows;
+        adjacency.offsets = compacted;
+        adjacency.targets = write == targets.length ? targets : Arrays.copyOf(targets, write);
+        return adjacency;
+    }
+
+    boolean add(int src, int dst) {
+        long edge = pack(src, dst);
+        int tombstone = Arrays.binarySearch(removed, 0, removedSize, edge);
+        if (tombstone >= 0) {
+            removeAt(removed, removedSize--, tombstone);
+            return true;
+        }
+        if (baseContains(src, dst)) {
+            return false;
+        }
+        int pos = Arrays.binarySearch(added, 0, addedSize, edge);
+        if (pos >= 0) {
+            return false;
+        }
+        added = insertAt(added, addedSize++, -pos - 1, edge);
+        compactIfNeeded();
+        return true;
+    }
+
+    boolean remove(int src, int dst) {
+        long edge = pack(src, dst);
+        int pos = Arrays.binarySearch(added, 0, addedSize, edge);
+        if (pos >= 0) {
+            removeAt(added, addedSize--, pos);
+            return true;
+        }
+        if (!baseContains(src, dst)) {
+            return false;
+        }
+        int tombstone = Arrays.binarySearch(removed, 0, removedSize, edge);
+        if (tombstone >= 0) {
+            return false;
+        }
+        removed = insertAt(removed, removedSize++, -tombstone - 1, edge);
+        compactIfNeeded();
+        return true;
+    }
+
+    boolean contains(int src, int dst) {
+        long edge = pack(src, dst);
+        if (Arrays.binarySearch(added, 0, addedSize, edge) >= 0) {
+            return true;
+        }
+        return baseContains(src, dst) && Arrays.binarySearch(removed, 0, removedSize, edge) < 0;
+    }
+
+    int degree(int src) {
+        int base = src < rows ? offsets[src + 1] - offsets[src] : 0;
+        return base - countRange(removed, removedSize, src) + countRange(added, addedSize, src);
+    }
+
+    /**
+     * Returns the sorted neighbours of {@code src}, merging the base row with the delta buffers.
+     */
+    int[] neighbours(int src) {
+        int degree = degree(src);
+        if (degree == 0) {
+            return EMPTY;
+        }
+        int[] result = new int[degree];
+        int baseIdx = src < rows ? offsets[src] : 0;
+        int baseEnd = src < rows ? offsets[src + 1] : 0;
+        int addIdx = lowerBound(added, addedSize, pack(src, 0));
+        int addEnd = lowerBound(added, addedSize, pack(src + 1, 0));
+        int remIdx = lowerBound(removed, removedSize, pack(src, 0));
+        int remEnd = lowerBound(removed, removedSize, pack(src + 1, 0));
+
+        int out = 0;
+        while (baseIdx < baseEnd || addIdx < addEnd) {
+            if (addIdx >= addEnd || (baseIdx < baseEnd && targets[baseIdx] < (int) added[addIdx])) {
+                int candidate = targets[baseIdx++];
+                while (remIdx < remEnd && (int) removed[remIdx] < candidate) {
+                    remIdx++;
+                }
+                if (remIdx < remEnd && (int) removed[remIdx] == candidate) {
+                    remIdx++;
+                    continue;
+                }
+                result[out++] = candidate;
+            } else {
+                result[out++] = (int) added[addIdx++];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops every outgoing edge of {@code src} and returns the neighbours it had.
+     */
+    int[] clear(int src) {
+        int[] neighbours = neighbours(src);
+        for (int dst : neighbours) {
+            remove(src, dst);
+        }
+        return neighbours;
+    }
+
+    int rows() {
+        return Math.max(rows, addedSize == 0 ? 0 : (int) (added[addedSize - 1] >>> 32) + 1);
+    }
+
+    long edgeCount() {
+        return (long) targets.length - removedSize + addedSize;
+    }
+
+    void compact() {
+        int newRows = rows();
+        int[] newOffsets = new int[newRows + 1];
+        int[] newTargets = new int[(int) edgeCount()];
+        int write = 0;
+        for (int r = 0; r < newRows; r++) {
+            newOffsets[r] = write;
+            int[] row = neighbours(r);
+            System.arraycopy(row, 0, newTargets, write, row.length);
+            write += row.length;
+        }
+        newOffsets[newRows] = write;
+
+        rows = newRows;
+        offsets = newOffsets;
+        targets = newTargets;
+        addedSize = 0;
+        removedSize = 0;
+    }
+
+    private void compactIfNeeded() {
+        if (addedSize + removedSize >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    private boolean baseContains(int src, int dst) {
+        if (src >= rows) {
+            return false;
+        }
+        return Arrays.binarySearch(targets, offsets[src], offsets[src + 1], dst) >= 0;
+    }
+
+    private static long pack(int src, int dst) {
+        return ((long) src << 32) | (dst & 0xFFFFFFFFL);
+    }
+
+    private static int countRange(long[] edges, int size, int src) {
+        if (size == 0) {
+            return 0;
+        }
+        return lowerBound(edges, size, pack(src + 1, 0)) - lowerBound(edges, size, pack(src, 0));
+    }
+
+    private static int lowerBound(long[] edges, int size, long key) {
+        int pos = Arrays.binarySearch(edges, 0, size, key);
+        if (pos < 0) {
+            return -pos - 1;
+        }
+        while (pos > 0 && edges[pos - 1] == key) {
+            pos--;
+        }
+        return pos;
+    }
+
+    private static long[] insertAt(long[] edges, int size, int pos, long edge) {
+        if (size == edges.length) {
+            edges = Arrays.copyOf(edges, size * 2);
+        }
+        System.arraycopy(edges, pos, edges, pos + 1, size - pos);
+        edges[pos] = edge;
+        return edges;
+    }
+
+    private static void removeAt(long[] edges, int size, int pos) {
+        System.arraycopy(edges, pos + 1, edges, pos, size - pos - 1);
+    }
+}
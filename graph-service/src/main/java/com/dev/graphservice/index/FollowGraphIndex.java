@@ -0,0 +1,461 @@
+package com.dev.graphservice.index;
+
+import com.dev.graphservice.core.GraphRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process copy of the follow graph. User UUIDs are interned to dense int ids and both edge
+ * directions are kept as {@link CsrAdjacency}, so a follower lookup is a lock, an array merge
+ * and one {@link UUID} per neighbour.
+ * <p>
+ * The index is loaded from the graph store once the application is ready and is then kept in
+ * step by {@code UserService}. Writes that race the initial load are queued and replayed
+ * on top of the loaded snapshot. Until the load completes every read returns empty and callers
+ * fall back to the repository.
+ * <p>
+ * With {@code app.follow-index.snapshot.path} set, the index is also written to local disk every
+ * {@code snapshot.interval} as a {@link FollowGraphSnapshot}. On start the snapshot is mapped and
+ * served right away, then the index catches up with a rebuild from the graph store after a
+ * jittered {@code snapshot.reconcile-delay}, so a fleet restart does not scan the store at once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.follow-index.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class FollowGraphIndex {
+
+    public static final String EDGE_LABEL = "following";
+
+    private final GraphRepository repo;
+
+    @Value("${app.follow-index.compaction-threshold:65536}")
+    private int compactionThreshold;
+
+    @Value("${app.follow-index.expected-users:1024}")
+    private int expectedUsers;
+
+    @Value("${app.follow-index.snapshot.path:}")
+    private String snapshotPath;
+
+    @Value("${app.follow-index.snapshot.reconcile-delay:PT2M}")
+    private Duration reconcileDelay;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Mutation> pending = new ArrayList<>();
+
+    private volatile boolean ready;
+    private boolean rebuilding;
+
+    private UserIdTable ids;
+    private CsrAdjacency out;
+    private CsrAdjacency in;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Path snapshot = snapshotFile();
+        if (snapshot != null && Files.isReadable(snapshot)) {
+            try {
+                load("snapshot " + snapshot, () -> readSnapshot(snapshot));
+                scheduleReconcile();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Could not load follow graph snapshot {}, rebuilding from the graph store: {}",
+                        snapshot, ex.getMessage());
+            }
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.error("Follow graph index warm-up failed, serving follow reads from the graph store", ex);
+        }
+    }
+
+    public void rebuild() {
+        load("graph store", this::scanGraphStore);
+    }
+
+    /**
+     * Writes the current index to the snapshot path. The adjacency is encoded under the read lock,
+     * the file itself is written after releasing it.
+     */
+    @Scheduled(fixedDelayString = "${app.follow-index.snapshot.interval:PT10M}",
+            initialDelayString = "${app.follow-index.snapshot.interval:PT10M}")
+    public void writeSnapshot() {
+        Path snapshot = snapshotFile();
+        if (snapshot == null || !ready) {
+            return;
+        }
+        long start = System.nanoTime();
+        byte[] encoded;
+        lock.readLock().lock();
+        try {
+            encoded = FollowGraphSnapshot.encode(ids, out);
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            FollowGraphSnapshot.write(snapshot, encoded);
+            log.info("Follow graph snapshot written to {}: {} bytes in {} ms",
+                    snapshot, encoded.length, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException ex) {
+            log.warn("Failed to write follow graph snapshot {}: {}", snapshot, ex.getMessage());
+        }
+    }
+
+    private void load(String source, Supplier<FollowGraphSnapshot.Loaded> loader) {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long start = System.nanoTime();
+            FollowGraphSnapshot.Loaded loaded = loader.get();
+            UserIdTable table = loaded.ids();
+            CsrAdjacency outgoing = CsrAdjacency.build(table.size(), loaded.src(), loaded.dst(), loaded.edgeCount(), compactionThreshold);
+            CsrAdjacency incoming = CsrAdjacency.build(table.size(), loaded.dst(), loaded.src(), loaded.edgeCount(), compactionThreshold);
+
+            lock.writeLock().lock();
+            try {
+                ids = table;
+                out = outgoing;
+                in = incoming;
+                pending.forEach(this::apply);
+                log.info("Follow graph index loaded from {}: {} users, {} edges, {} replayed writes in {} ms",
+                        source, table.size(), outgoing.edgeCount(), pending.size(),
+                        (System.nanoTime() - start) / 1_000_000);
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pending.clear();
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private FollowGraphSnapshot.Loaded scanGraphStore() {
+        UserIdTable table = new UserIdTable(expectedUsers);
+        EdgeBuffer edges = new EdgeBuffer();
+        repo.forEachEdge(EDGE_LABEL, "userId", (from, to) -> {
+            UUID fromId = toUuid(from);
+            UUID toId = toUuid(to);
+            if (fromId != null && toId != null) {
+                edges.add(table.intern(fromId), table.intern(toId));
+            }
+        });
+        return new FollowGraphSnapshot.Loaded(table, edges.src, edges.dst, edges.size, System.currentTimeMillis());
+    }
+
+    private static FollowGraphSnapshot.Loaded readSnapshot(Path snapshot) {
+        try {
+            return FollowGraphSnapshot.read(snapshot);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Rebuilds from the graph store in the background to pick up whatever changed since the
+     * snapshot was taken. Writes made meanwhile are queued and replayed by {@link #load}.
+     */
+    private void scheduleReconcile() {
+        long delayMillis = reconcileDelay.toMillis();
+        long jitter = delayMillis > 0 ? ThreadLocalRandom.current().nextLong(delayMillis) : 0;
+        CompletableFuture.runAsync(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                log.error("Follow graph index catch-up failed, serving from the snapshot", ex);
+            }
+        }, CompletableFuture.delayedExecutor(delayMillis + jitter, TimeUnit.MILLISECONDS));
+    }
+
+    private Path snapshotFile() {
+        return snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void follow(UUID fromUserId, UUID toUserId) {
+        write(new Mutation(MutationType.FOLLOW, fromUserId, toUserId));
+    }
+
+    public void unfollow(UUID fromUserId, UUID toUserId) {
+        write(new Mutation(MutationType.UNFOLLOW, fromUserId, toUserId));
+    }
+
+    public void removeUser(UUID userId) {
+        write(new Mutation(MutationType.REMOVE_USER, userId, null));
+    }
+
+    /**
+     * Users that {@code userId} follows, or empty when the index cannot answer for that user.
+     */
+    public Optional<List<UUID>> followings(UUID userId) {
+        return neighbours(userId, true);
+    }
+
+    /**
+     * Users following {@code userId}, or empty when the index cannot answer for that user.
+     */
+    public Optional<List<UUID>> followers(UUID userId) {
+        return neighbours(userId, false);
+    }
+
+    /**
+     * Whether {@code fromUserId} follows {@code toUserId}. False until the index is loaded.
+     */
+    public boolean follows(UUID fromUserId, UUID toUserId) {
+        if (!ready) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            int from = ids.find(fromUserId);
+            int to = ids.find(toUserId);
+            return from >= 0 && to >= 0 && out.contains(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Second-degree candidates of {@code userId}: users followed by the users they follow, excluding
+     * themselves and anyone they already follow, scored by how many of their followings lead there.
+     * Returns the top {@code limit} by score, or empty when the index cannot answer for that user.
+     */
+    public Optional<List<Candidate>> friendsOfFriends(UUID userId, int limit, ForkJoinPool pool) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            int id = ids.find(userId);
+            if (id < 0) {
+                return Optional.empty();
+            }
+            int[] direct = out.neighbours(id);
+            if (direct.length == 0) {
+                return Optional.of(List.of());
+            }
+            // The read lock held here keeps writers out while the workers read the adjacency
+            int[] secondDegree = pool.invoke(new SecondDegreeTask(out, direct, 0, direct.length));
+
+            PriorityQueue<long[]> top = new PriorityQueue<>(limit + 1,
+                    (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+            for (int i = 0; i < secondDegree.length; ) {
+                int candidate = secondDegree[i];
+                int run = i;
+                while (i < secondDegree.length && secondDegree[i] == candidate) {
+                    i++;
+                }
+                if (candidate == id || Arrays.binarySearch(direct, candidate) >= 0) {
+                    continue;
+                }
+                top.add(new long[]{i - run, candidate});
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            Candidate[] result = new Candidate[top.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                long[] entry = top.poll();
+                result[i] = new Candidate(ids.uuidOf((int) entry[1]), (int) entry[0]);
+            }
+            return Optional.of(List.of(result));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Optional<List<UUID>> neighbours(UUID userId, boolean outgoing) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            // Users without any edge are never interned, let the caller confirm they exist
+            int id = ids.find(userId);
+            if (id < 0) {
+                return Optional.empty();
+            }
+            int[] neighbours = (outgoing ? out : in).neighbours(id);
+            List<UUID> result = new ArrayList<>(neighbours.length);
+            for (int neighbour : neighbours) {
+                result.add(ids.uuidOf(neighbour));
+            }
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Mutation mutation) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                pending.add(mutation);
+            }
+            if (ids != null) {
+                apply(mutation);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Mutation mutation) {
+        switch (mutation.type()) {
+            case FOLLOW -> {
+                int from = ids.intern(mutation.from());
+                int to = ids.intern(mutation.to());
+                out.add(from, to);
+                in.add(to, from);
+            }
+            case UNFOLLOW -> {
+                int from = ids.find(mutation.from());
+                int to = ids.find(mutation.to());
+                if (from >= 0 && to >= 0) {
+                    out.remove(from, to);
+                    in.remove(to, from);
+                }
+            }
+            case REMOVE_USER -> {
+                int id = ids.find(mutation.from());
+                if (id >= 0) {
+                    for (int to : out.clear(id)) {
+                        in.remove(to, id);
+                    }
+                    for (int from : in.clear(id)) {
+                        out.remove(from, id);
+                    }
+                }
+            }
+        }
+    }
+
+    private static UUID toUuid(Object value) {
+        if (value instanceof UUID uuid) {
+            return uuid;
+        }
+        if (value instanceof String s) {
+            return UUID.fromString(s);
+        }
+        return null;
+    }
+
+    public record Candidate(UUID userId, int mutualConnections) {}
+
+    /**
+     * Gathers the followings of {@code direct[from..to)} as one sorted {@code int[]}, splitting the
+     * range across the pool and merging the sorted halves, so equal candidates end up adjacent.
+     */
+    private static final class SecondDegreeTask extends RecursiveTask<int[]> {
+        private static final int LEAF_SIZE = 64;
+
+        private final CsrAdjacency adjacency;
+        private final int[] direct;
+        private final int from;
+        private final int to;
+
+        SecondDegreeTask(CsrAdjacency adjacency, int[] direct, int from, int to) {
+            this.adjacency = adjacency;
+            this.direct = direct;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= LEAF_SIZE) {
+                int[][] rows = new int[to - from][];
+                int size = 0;
+                for (int i = from; i < to; i++) {
+                    rows[i - from] = adjacency.neighbours(direct[i]);
+                    size += rows[i - from].length;
+                }
+                int[] merged = new int[size];
+                int pos = 0;
+                for (int[] row : rows) {
+                    System.arraycopy(row, 0, merged, pos, row.length);
+                    pos += row.length;
+                }
+                Arrays.sort(merged);
+                return merged;
+            }
+            int mid = (from + to) >>> 1;
+            SecondDegreeTask left = new SecondDegreeTask(adjacency, direct, from, mid);
+            left.fork();
+            int[] right = new SecondDegreeTask(adjacency, direct, mid, to).compute();
+            return merge(left.join(), right);
+        }
+
+        private static int[] merge(int[] a, int[] b) {
+            int[] merged = new int[a.length + b.length];
+            int i = 0, j = 0, k = 0;
+            while (i < a.length && j < b.length) {
+                merged[k++] = a[i] <= b[j] ? a[i++] : b[j++];
+            }
+            System.arraycopy(a, i, merged, k, a.length - i);
+            System.arraycopy(b, j, merged, k + a.length - i, b.length - j);
+            return merged;
+        }
+    }
+
+    private enum MutationType { FOLLOW, UNFOLLOW, REMOVE_USER }
+
+    private record Mutation(MutationType type, UUID from, UUID to) {}
+
+    private static final class EdgeBuffer {
+        private int[] src = new int[1024];
+        private int[] dst = new int[1024];
+        private int size;
+
+        void add(int from, int to) {
+            if (size == src.length) {
+                src = Arrays.copyOf(src, size * 2);
+                dst = Arrays.copyOf(dst, size * 2);
+            }
+            src[size] = from;
+            dst[size] = to;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.dev.graphservice.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the follow graph, so a restarting node can load the index from local disk
+ * instead of scanning every edge in the graph store.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ *   int magic "FGS1" | int version | long createdAtMillis | int users | long edges
+ *   users x (long msb, long lsb)            dense id table, position = int id
+ *   users x (varint degree, varint deltas)  outgoing rows, sorted targets delta-encoded
+ *   long crc32                              over everything before it
+ * </pre>
+ * Only outgoing edges are stored, the incoming side is rebuilt by transposing on load.
+ */
+final class FollowGraphSnapshot {
+
+    private static final int MAGIC = 0x46475331;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 8;
+
+    private FollowGraphSnapshot() {
+    }
+
+    record Loaded(UserIdTable ids, int[] src, int[] dst, int edgeCount, long createdAt) {}
+
+    /**
+     * Encodes the id table and outgoing adjacency. Reads the structures only, callers hold the read lock.
+     */
+    static byte[] encode(UserIdTable ids, CsrAdjacency out) {
+        int users = ids.size();
+        Encoder encoder = new Encoder(HEADER_BYTES + users * 16 + (int) Math.min(Integer.MAX_VALUE / 2, out.edgeCount() * 2));
+        encoder.putInt(MAGIC);
+        encoder.putInt(VERSION);
+        encoder.putLong(System.currentTimeMillis());
+        encoder.putInt(users);
+        encoder.putLong(0L);
+        for (int id = 0; id < users; id++) {
+            UUID uuid = ids.uuidOf(id);
+            encoder.putLong(uuid.getMostSignificantBits());
+            encoder.putLong(uuid.getLeastSignificantBits());
+        }
+        long edges = 0;
+        for (int id = 0; id < users; id++) {
+            int[] row = out.neighbours(id);
+            encoder.putVarint(row.length);
+            int previous = 0;
+            for (int target : row) {
+                encoder.putVarint(target - previous);
+                previous = target;
+            }
+            edges += row.length;
+        }
+        encoder.patchLong(HEADER_BYTES - 8, edges);
+
+        CRC32 crc = new CRC32();
+        crc.update(encoder.bytes, 0, encoder.size);
+        encoder.putLong(crc.getValue());
+        return Arrays.copyOf(encoder.bytes, encoder.size);
+    }
+
+    /**
+     * Writes next to {@code path} and atomically moves into place, a crash never leaves a torn snapshot.
+     */
+    static void write(Path path, byte[] snapshot) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Loaded read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8 || size > Integer.MAX_VALUE) {
+                throw new IOException("Unsupported snapshot size " + size + " for " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - 8));
+            if (crc.getValue() != buffer.getLong((int) size - 8)) {
+                throw new IOException("Snapshot checksum mismatch for " + path);
+            }
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a follow graph snapshot: " + path);
+            }
+            long createdAt = buffer.getLong();
+            int users = buffer.getInt();
+            long edges = buffer.getLong();
+            if (users < 0 || edges < 0 || edges > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt snapshot header in " + path);
+            }
+
+            UserIdTable ids = new UserIdTable(users);
+            for (int id = 0; id < users; id++) {
+                if (ids.intern(new UUID(buffer.getLong(), buffer.getLong())) != id) {
+                    throw new IOException("Duplicate user id in snapshot " + path);
+                }
+            }
+
+            int edgeCount = (int) edges;
+            int[] src = new int[edgeCount];
+            int[] dst = new int[edgeCount];
+            int e = 0;
+            for (int id = 0; id < users; id++) {
+                int degree = getVarint(buffer);
+                if (degree > edgeCount - e) {
+                    throw new IOException("Corrupt adjacency in snapshot " + path);
+                }
+                int target = 0;
+                for (int i = 0; i < degree; i++) {
+                    target += getVarint(buffer);
+                    src[e] = id;
+                    dst[e++] = target;
+                }
+            }
+            if (e != edgeCount) {
+                throw new IOException("Edge count mismatch in snapshot " + path);
+            }
+            return new Loaded(ids, src, dst, edgeCount, createdAt);
+        }
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    private static final class Encoder {
+        private byte[] bytes;
+        private int size;
+
+        Encoder(int capacity) {
+            bytes = new byte[Math.max(64, capacity)];
+        }
+
+        void putInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void putLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void patchLong(int position, long value) {
+            for (int i = 0; i < 8; i++) {
+                bytes[position + i] = (byte) (value >>> (56 - 8 * i));
+            }
+        }
+
+        void putVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.dev.graphservice.index;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Maps user UUIDs to dense int ids with an open-addressing table over the raw UUID bits,
+ * so neither lookups nor the id table itself box a {@link UUID}.
+ * <p>
+ * Ids are never recycled, a deleted user simply keeps an empty adjacency row.
+ * Not thread-safe, {@link FollowGraphIndex} guards access.
+ */
+final class UserIdTable {
+
+    private static final int FREE = -1;
+
+    private long[] msb;
+    private long[] lsb;
+    private int[] slots;
+    private int size;
+
+    UserIdTable(int expectedUsers) {
+        int capacity = Math.max(16, expectedUsers);
+        msb = new long[capacity];
+        lsb = new long[capacity];
+        slots = new int[tableSizeFor(capacity * 2)];
+        Arrays.fill(slots, FREE);
+    }
+
+    int intern(UUID userId) {
+        long hi = userId.getMostSignificantBits();
+        long lo = userId.getLeastSignificantBits();
+        int mask = slots.length - 1;
+        int slot = hash(hi, lo) & mask;
+        while (slots[slot] != FREE) {
+            int id = slots[slot];
+            if (msb[id] == hi && lsb[id] == lo) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = size++;
+        if (id == msb.length) {
+            msb = Arrays.copyOf(msb, id * 2);
+            lsb = Arrays.copyOf(lsb, id * 2);
+        }
+        msb[id] = hi;
+        lsb[id] = lo;
+        slots[slot] = id;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the dense id of {@code userId}, or {@code -1} when the user has never been interned.
+     */
+    int find(UUID userId) {
+        long hi = userId.getMostSignificantBits();
+        long lo = userId.getLeastSignificantBits();
+        int mask = slots.length - 1;
+        int slot = hash(hi, lo) & mask;
+        while (slots[slot] != FREE) {
+            int id = slots[slot];
+            if (msb[id] == hi && lsb[id] == lo) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return FREE;
+    }
+
+    UUID uuidOf(int id) {
+        return new UUID(msb[id], lsb[id]);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] grown = new int[slots.length * 2];
+        Arrays.fill(grown, FREE);
+        int mask = grown.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hash(msb[id], lsb[id]) & mask;
+            while (grown[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = id;
+        }
+        slots = grown;
+    }
+
+    private static int hash(long hi, long lo) {
+        long h = (hi ^ lo) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int n) {
+        return Integer.highestOneBit(Math.max(2, n) - 1) << 1;
+    }
+}
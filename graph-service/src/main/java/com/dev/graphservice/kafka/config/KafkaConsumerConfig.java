@@ -1,29 +1,92 @@
 package com.dev.graphservice.kafka.config;
 
+import com.dev.graphservice.kafka.consumer.FanoutScheduler;
 import com.dev.graphservice.kafka.event.CloudEvent;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.annotation.EnableKafkaRetryTopic;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory;
+import org.springframework.kafka.retrytopic.DestinationTopicResolver;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 
+/**
+ * Failed records never block a partition and are never dropped. post-events go through
+ * non-blocking retry topics ({@code post-events-retry-0..n}, delays growing from
+ * {@code app.kafka.retry.initial-delay} by {@code multiplier} up to {@code max-delay}) and end in
+ * {@code post-events-dlt}. Batch listeners cannot use retry topics, so user-events get a couple of
+ * in-place retries before their failed record is dead-lettered. Records that cannot be
+ * deserialized go straight to the dead-letter topic. See {@link RetryTopicMetrics} for the metrics.
+ */
 @Configuration
 @EnableKafka
+@EnableKafkaRetryTopic
 public class KafkaConsumerConfig {
 
+    public static final String RETRY_SUFFIX = "-retry";
+    public static final String DLT_SUFFIX = "-dlt";
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${app.fanout.max-poll-records:50}")
+    private int fanoutMaxPollRecords;
+
+    @Value("${app.user-events.batch.max-records:500}")
+    private int userEventsMaxRecords;
+
+    @Value("${app.user-events.batch.min-bytes:65536}")
+    private int userEventsMinBytes;
+
+    @Value("${app.user-events.batch.max-wait:500ms}")
+    private Duration userEventsMaxWait;
+
+    @Value("${app.kafka.topics.post-events}")
+    private String postEventsTopic;
+
+    @Value("${app.kafka.topics.user-events}")
+    private String userEventsTopic;
+
+    @Value("${app.kafka.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${app.kafka.retry.initial-delay:1s}")
+    private Duration retryInitialDelay;
+
+    @Value("${app.kafka.retry.multiplier:10}")
+    private double retryMultiplier;
+
+    @Value("${app.kafka.retry.max-delay:60s}")
+    private Duration retryMaxDelay;
+
+    @Value("${app.kafka.retry.partitions:3}")
+    private int retryPartitions;
+
+    @Value("${app.kafka.retry.replication-factor:1}")
+    private short retryReplicationFactor;
+
     @Bean
     public ConsumerFactory<String, CloudEvent<?>> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
@@ -39,17 +102,112 @@ public class KafkaConsumerConfig {
         return new DefaultKafkaConsumerFactory<>(
                 props,
                 new StringDeserializer(),
-                new JsonDeserializer<>(CloudEvent.class)
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(CloudEvent.class))
         );
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, CloudEvent<?>> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, CloudEvent<?>> kafkaListenerContainerFactory(
+            KafkaTemplate<String, CloudEvent<?>> kafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, CloudEvent<?>> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consumerFactory());
+        factory.setCommonErrorHandler(new DefaultErrorHandler(deadLetterRecoverer(kafkaTemplate), new FixedBackOff(0L, 0)));
+        return factory;
+    }
+
+    /**
+     * Post fan-out listener: records are acknowledged from the fan-out threads once the work is done,
+     * possibly out of order. The container defers each commit until every lower offset is acknowledged.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CloudEvent<?>> fanoutListenerContainerFactory(
+            RetryTopicMetrics retryTopicMetrics) {
         ConcurrentKafkaListenerContainerFactory<String, CloudEvent<?>> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
 
         factory.setConsumerFactory(consumerFactory());
-        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(0L, 0)));
+        factory.setRecordInterceptor(retryTopicMetrics.retryCounter());
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setAsyncAcks(true);
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, fanoutMaxPollRecords);
+        containerProperties.setKafkaConsumerProperties(consumerProperties);
         return factory;
     }
+
+    /**
+     * User-events listener: each poll is delivered as one batch of up to
+     * {@code app.user-events.batch.max-records}. The broker holds a fetch until
+     * {@code min-bytes} are available or {@code max-wait} has passed, so batches fill up during
+     * signup waves and replays without delaying a lone signup by more than that. A failed batch is
+     * retried, records the listener reports as failed are dead-lettered after the retries.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CloudEvent<?>> userEventsListenerContainerFactory(
+            KafkaTemplate<String, CloudEvent<?>> kafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, CloudEvent<?>> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(deadLetterRecoverer(kafkaTemplate), new FixedBackOff(1000L, 2)));
+
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, userEventsMaxRecords);
+        consumerProperties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, userEventsMinBytes);
+        consumerProperties.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) userEventsMaxWait.toMillis());
+        factory.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+        return factory;
+    }
+
+    /**
+     * Retry topics and dead-letter topic of the post fan-out listener. The retry containers come
+     * from {@link #fanoutListenerContainerFactory}; the dead-letter topic is not consumed, records
+     * stay there for inspection and replay.
+     */
+    @Bean
+    public RetryTopicConfiguration postEventsRetryTopics(KafkaTemplate<String, CloudEvent<?>> kafkaTemplate,
+                                                         RetryTopicMetrics retryTopicMetrics) {
+        retryTopicMetrics.registerDeadLetterTopic(postEventsTopic + DLT_SUFFIX);
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopic(postEventsTopic)
+                .maxAttempts(retryAttempts)
+                .exponentialBackoff(retryInitialDelay.toMillis(), retryMultiplier, retryMaxDelay.toMillis())
+                .retryTopicSuffix(RETRY_SUFFIX)
+                .dltSuffix(DLT_SUFFIX)
+                .suffixTopicsWithIndexValues()
+                .autoCreateTopicsWith(retryPartitions, retryReplicationFactor)
+                .autoStartDltHandler(false)
+                .listenerFactory("fanoutListenerContainerFactory")
+                .create(kafkaTemplate);
+    }
+
+    /**
+     * Moves a post whose asynchronous fan-out failed onto its next retry topic, exactly as the retry
+     * containers' error handler would: the destination comes from {@link #postEventsRetryTopics} and
+     * the record carries the attempt and back-off headers the retry container waits on.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer postEventsRetryRecoverer(DestinationTopicResolver destinationTopicResolver) {
+        return new DeadLetterPublishingRecovererFactory(destinationTopicResolver).create(FanoutScheduler.LISTENER_ID);
+    }
+
+    @Bean
+    public NewTopic userEventsDeadLetterTopic(RetryTopicMetrics retryTopicMetrics) {
+        retryTopicMetrics.registerDeadLetterTopic(userEventsTopic + DLT_SUFFIX);
+        return TopicBuilder.name(userEventsTopic + DLT_SUFFIX)
+                .partitions(retryPartitions)
+                .replicas(retryReplicationFactor)
+                .build();
+    }
+
+    // Any partition of <topic>-dlt, the dead-letter topic need not match the source's partition count
+    private static DeadLetterPublishingRecoverer deadLetterRecoverer(KafkaTemplate<String, CloudEvent<?>> kafkaTemplate) {
+        return new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, ex) -> new TopicPartition(record.topic() + DLT_SUFFIX, -1));
+    }
 }
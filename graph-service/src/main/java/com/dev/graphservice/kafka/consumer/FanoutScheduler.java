@@ -0,0 +1,126 @@
+package com.dev.graphservice.kafka.consumer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs post fan-outs on virtual threads, at most {@code app.fanout.max-in-flight} at a time.
+ * <p>
+ * A record is acknowledged only once its fan-out has succeeded, or once its failure handler has
+ * moved it to the retry topics. The container commits acknowledgments in offset order, so a crash
+ * re-delivers unfinished work instead of losing it. A record whose failure could not be handed
+ * off is left unacknowledged: nothing past it is committed and it is re-delivered after the next
+ * restart or rebalance.
+ * Fan-outs waiting for a slot park on a semaphore; once {@code app.fanout.max-pending} are
+ * submitted but unfinished the listener container is paused, and it is resumed when the backlog
+ * has drained to half of that. Heap use is bounded by the backlog, not by the burst size.
+ */
+@Slf4j
+@Component
+public class FanoutScheduler {
+
+    public static final String LISTENER_ID = "post-fanout";
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore slots;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final int maxPending;
+    private final Duration shutdownTimeout;
+    private boolean paused;
+
+    public FanoutScheduler(KafkaListenerEndpointRegistry registry,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.fanout.max-in-flight:32}") int maxInFlight,
+                           @Value("${app.fanout.max-pending:256}") int maxPending,
+                           @Value("${app.fanout.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.registry = registry;
+        this.slots = new Semaphore(maxInFlight);
+        this.maxPending = Math.max(maxPending, maxInFlight);
+        this.shutdownTimeout = shutdownTimeout;
+        Gauge.builder("fanout.in-flight", slots, s -> maxInFlight - s.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("fanout.queue.depth", slots, Semaphore::getQueueLength)
+                .register(meterRegistry);
+        Gauge.builder("fanout.pending", pending, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules {@code fanout} and acknowledges the record once it has succeeded or its failure has
+     * been accepted by {@code onFailure}. Called from the listener thread, never blocks it.
+     */
+    public void submit(Runnable fanout, Consumer<RuntimeException> onFailure, Acknowledgment acknowledgment) {
+        if (pending.incrementAndGet() >= maxPending) {
+            pause();
+        }
+        executor.execute(() -> {
+            slots.acquireUninterruptibly();
+            try {
+                run(fanout, onFailure, acknowledgment);
+            } finally {
+                slots.release();
+                if (pending.decrementAndGet() <= maxPending / 2) {
+                    resume();
+                }
+            }
+        });
+    }
+
+    private static void run(Runnable fanout, Consumer<RuntimeException> onFailure, Acknowledgment acknowledgment) {
+        try {
+            fanout.run();
+        } catch (RuntimeException ex) {
+            log.warn("Fan-out failed: {}", ex.getMessage());
+            try {
+                onFailure.accept(ex);
+            } catch (RuntimeException handlerEx) {
+                log.error("Fan-out failure could not be handed off, leaving the record unacknowledged for re-delivery", handlerEx);
+                return;
+            }
+        }
+        acknowledgment.acknowledge();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Listener containers are stopped before this runs, anything unfinished is re-delivered
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("{} fan-outs still running at shutdown, they will be re-delivered", pending.get());
+        }
+    }
+
+    private synchronized void pause() {
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (!paused && container != null) {
+            container.pause();
+            paused = true;
+            log.info("Fan-out backlog at {}, pausing post-events consumption", pending.get());
+        }
+    }
+
+    private synchronized void resume() {
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (paused && container != null && pending.get() <= maxPending / 2) {
+            container.resume();
+            paused = false;
+            log.info("Fan-out backlog drained to {}, resuming post-events consumption", pending.get());
+        }
+    }
+}
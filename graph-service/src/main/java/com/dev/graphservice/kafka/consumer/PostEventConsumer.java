@@ -1,48 +1,74 @@
 package com.dev.graphservice.kafka.consumer;
 
+import com.dev.graphservice.kafka.config.KafkaConsumerConfig;
 import com.dev.graphservice.kafka.event.CloudEvent;
 import com.dev.graphservice.kafka.event.PostCreatedEvent;
 import com.dev.graphservice.service.PostFanoutService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.Executor;
+import java.nio.charset.StandardCharsets;
 
+/**
+ * Post fan-out listener, for post-events and its retry topics (see {@link KafkaConsumerConfig}).
+ * Fan-outs from post-events run on the {@link FanoutScheduler}, a failed one is handed to the
+ * retry-topic recoverer, which publishes it to the first retry topic with its back-off headers.
+ * On the retry topics the fan-out runs on the listener thread, so a failure reaches the
+ * retry-topic error handler, which moves the record one tier on.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PostEventConsumer {
 
     private final PostFanoutService postFanoutService;
-    private final Executor fanoutExecutor;
+    private final FanoutScheduler fanoutScheduler;
+    private final DeadLetterPublishingRecoverer postEventsRetryRecoverer;
     private final ObjectMapper objectMapper;
 
+    @Value("${app.kafka.topics.post-events}")
+    private String postEventsTopic;
+
     @KafkaListener(
+            id = FanoutScheduler.LISTENER_ID,
+            idIsGroup = false,
             topics = "${app.kafka.topics.post-events}",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "fanoutListenerContainerFactory"
     )
     public void consumeUserCreatedEvent(
-            CloudEvent<?> event,
-            @Header("event-type") String eventType,
-            @Header("correlation-id") String correlationId
+            ConsumerRecord<String, CloudEvent<?>> record,
+            Acknowledgment acknowledgment
     ) {
-        fanoutExecutor.execute(() -> {
-            try {
-                PostCreatedEvent postCreatedEvent = convert(event);
-                log.debug("Processing PostCreatedEvent: {}", postCreatedEvent.getUserId());
-                postFanoutService.process(postCreatedEvent, correlationId);
-            } catch (Exception e) {
-                log.error("Error processing PostCreatedEvent", e);
-            }
-        });
+        // The record itself is taken so a failed fan-out can be handed to the recoverer
+        PostCreatedEvent postCreatedEvent = convert(record.value());
+        String correlationId = header(record, "correlation-id");
+        if (!postEventsTopic.equals(record.topic())) {
+            log.info("Retrying fan-out for Post {} from {}", postCreatedEvent.getPostId(), record.topic());
+            postFanoutService.process(postCreatedEvent, correlationId);
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        log.debug("Scheduling fan-out for PostCreatedEvent: {}", postCreatedEvent.getUserId());
+        fanoutScheduler.submit(
+                () -> postFanoutService.process(postCreatedEvent, correlationId),
+                ex -> postEventsRetryRecoverer.accept(record, ex),
+                acknowledgment);
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        var header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
     }
 
     private PostCreatedEvent convert(CloudEvent<?> event) {
         return objectMapper.convertValue(event.getData(), PostCreatedEvent.class);
     }
 }
-
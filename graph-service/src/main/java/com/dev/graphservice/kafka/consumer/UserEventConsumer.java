@@ -7,9 +7,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -20,21 +23,39 @@ public class UserEventConsumer {
 
     @KafkaListener(
             topics = "${app.kafka.topics.user-events}",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "userEventsListenerContainerFactory"
     )
-    public void consumeUserCreatedEvent(
-            CloudEvent<?> event,
-            @Header("event-type") String eventType,
-            @Header("correlation-id") String correlationId
-    ) {
-        UserCreatedEvent userEvent = convert(event);
+    public void consumeUserCreatedEvents(List<CloudEvent<?>> events) {
+        List<UserCreatedEvent> userEvents = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i) == null) {
+                // Failed deserialization, the raw record goes to the dead-letter topic
+                throw new BatchListenerFailedException("Undeserializable UserCreatedEvent", i);
+            }
+            try {
+                userEvents.add(convert(events.get(i)));
+            } catch (IllegalArgumentException ex) {
+                throw new BatchListenerFailedException("Unreadable UserCreatedEvent", ex, i);
+            }
+        }
 
-        log.debug("Processing UserCreatedEvent: {}", userEvent.getUserId());
-        graphUserService.createUserFromEvent(userEvent);
+        log.debug("Processing {} UserCreatedEvents", userEvents.size());
+        try {
+            graphUserService.createUsersFromEvents(userEvents);
+        } catch (RuntimeException ex) {
+            // Writes are idempotent, so redo them one by one to pin down the failing record
+            log.warn("Bulk creation of {} users failed, retrying one by one: {}", userEvents.size(), ex.getMessage());
+            for (int i = 0; i < userEvents.size(); i++) {
+                try {
+                    graphUserService.createUsersFromEvents(List.of(userEvents.get(i)));
+                } catch (RuntimeException single) {
+                    throw new BatchListenerFailedException("Failed to create user " + userEvents.get(i).getUserId(), single, i);
+                }
+            }
+        }
     }
 
     private UserCreatedEvent convert(CloudEvent<?> event) {
         return objectMapper.convertValue(event.getData(), UserCreatedEvent.class);
     }
 }
-
@@ -0,0 +1,60 @@
+package com.dev.graphservice.kafka.producer;
+
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Decides which notification-events partition a fan-out recipient is published on.
+ * <p>
+ * With {@code app.fanout.partitioning=recipient} (the default) a recipient always hashes to the
+ * same partition, so the batches of one post spread over the whole topic while each recipient's
+ * notifications stay in order. {@code author} keeps the old behaviour of keying every batch by the
+ * post author, which puts a whole fan-out on one partition.
+ */
+@Component
+public class FanoutPartitioner {
+
+    public static final String BY_RECIPIENT = "recipient";
+    public static final String BY_AUTHOR = "author";
+
+    private final String strategy;
+
+    public FanoutPartitioner(@Value("${app.fanout.partitioning:" + BY_RECIPIENT + "}") String strategy) {
+        if (!BY_RECIPIENT.equals(strategy) && !BY_AUTHOR.equals(strategy)) {
+            throw new IllegalArgumentException("Unknown app.fanout.partitioning: " + strategy);
+        }
+        this.strategy = strategy;
+    }
+
+    public boolean spreadsRecipients() {
+        return BY_RECIPIENT.equals(strategy);
+    }
+
+    /**
+     * The partition Kafka's default partitioner picks for a record keyed by the recipient id string,
+     * so pushed batches land on the same partition as single events keyed by the recipient, such
+     * as FOLLOW-NOTIFICATION, and a recipient's notifications stay in order across both.
+     */
+    public static int partitionOf(UUID recipient, int partitions) {
+        return Utils.toPositive(Utils.murmur2(recipient.toString().getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    /**
+     * Splits {@code recipients} by partition, preserving their order, partitions ascending.
+     */
+    public static Map<Integer, List<UUID>> split(List<UUID> recipients, int partitions) {
+        Map<Integer, List<UUID>> groups = new TreeMap<>();
+        for (UUID recipient : recipients) {
+            groups.computeIfAbsent(partitionOf(recipient, partitions), p -> new ArrayList<>()).add(recipient);
+        }
+        return groups;
+    }
+}
@@ -7,11 +7,13 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
@@ -26,24 +28,41 @@ public class KafkaEventProducer {
     private static final String SPEC_VERSION = "1.0";
     private static final String CONTENT_TYPE = "application/json";
 
-    public <T> void publishEvent(
+    /**
+     * Sends the event asynchronously, the returned future completes once the broker has acknowledged it.
+     */
+    public <T> CompletableFuture<SendResult<String, CloudEvent<?>>> publishEvent(
             String topic,
             String eventType,
             String key,
             T payload,
             String correlationId) {
+        return publishEvent(topic, null, eventType, key, payload, correlationId);
+    }
+
+    /**
+     * Same as {@link #publishEvent(String, String, String, Object, String)}, but on the given
+     * partition instead of the one the key hashes to. A null partition falls back to the key.
+     */
+    public <T> CompletableFuture<SendResult<String, CloudEvent<?>>> publishEvent(
+            String topic,
+            Integer partition,
+            String eventType,
+            String key,
+            T payload,
+            String correlationId) {
 
         CloudEvent<T> cloudEvent = buildCloudEvent(eventType, payload, correlationId);
 
         ProducerRecord<String, CloudEvent<?>> record =
-                new ProducerRecord<>(topic, key, cloudEvent);
+                new ProducerRecord<>(topic, partition, key, cloudEvent);
 
         record.headers()
                 .add("correlation-id", correlationId.getBytes(StandardCharsets.UTF_8))
                 .add("event-type", eventType.getBytes(StandardCharsets.UTF_8))
                 .add("source", applicationName.getBytes(StandardCharsets.UTF_8));
 
-        kafkaTemplate.send(record)
+        return kafkaTemplate.send(record)
                 .whenComplete((result, ex) -> {
                     if (ex == null) {
                         RecordMetadata metadata = result.getRecordMetadata();
@@ -63,6 +82,13 @@ public class KafkaEventProducer {
                 });
     }
 
+    /**
+     * Partition count of {@code topic} from the producer's cached metadata.
+     */
+    public int partitionCount(String topic) {
+        return kafkaTemplate.partitionsFor(topic).size();
+    }
+
     private <T> CloudEvent<T> buildCloudEvent(String eventType, T payload, String correlationId) {
         return CloudEvent.<T>builder()
                 .id(UUID.randomUUID().toString())
@@ -0,0 +1,37 @@
+package com.dev.graphservice.model;
+
+import com.dev.graphservice.annotation.GraphVertex;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.neo4j.core.schema.GeneratedValue;
+import org.springframework.data.neo4j.core.schema.Id;
+import org.springframework.data.neo4j.core.schema.Node;
+import org.springframework.data.neo4j.core.schema.Property;
+
+import java.util.UUID;
+
+/**
+ * Progress of an in-flight push fan-out: every recipient up to and including
+ * {@code lastRecipientId}, in store order, has been acknowledged by Kafka in batches of
+ * {@code batchSize}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@GraphVertex(label = "FanoutCheckpoint")
+@Node("FanoutCheckpoint")
+public class FanoutCheckpoint {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Property("postId")
+    private UUID postId;
+    private int batchSize;
+    private UUID lastRecipientId;
+    private long updatedAt;
+}
@@ -0,0 +1,153 @@
+package com.dev.graphservice.path;
+
+import com.dev.graphservice.core.GraphRepository;
+import com.dev.graphservice.enums.Direction;
+import com.dev.graphservice.index.FollowGraphIndex;
+import com.dev.graphservice.utils.BatchUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Degrees-of-separation search over the follow graph. Runs a bidirectional breadth-first search,
+ * always growing the smaller frontier one full level at a time, with a visited map per side so no
+ * vertex is expanded twice, and stops at the first level where the two sides meet.
+ * <p>
+ * Levels are expanded against the {@link FollowGraphIndex} when it is loaded, otherwise with one
+ * {@link GraphRepository#expandNeighbours} query per hop and frontier chunk. The search gives up
+ * once {@code app.path.max-depth} hops or the {@code app.path.budget} latency budget are spent.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortestPathEngine {
+
+    private static final String USER_LABEL = "User";
+    private static final String USER_KEY = "userId";
+
+    private final GraphRepository repo;
+    private final Optional<FollowGraphIndex> followGraphIndex;
+
+    @Value("${app.path.max-depth:6}")
+    private int maxDepth;
+
+    @Value("${app.path.budget:250ms}")
+    private Duration budget;
+
+    @Value("${app.path.frontier-chunk-size:1000}")
+    private int frontierChunkSize;
+
+    /**
+     * Shortest directed follow path from {@code from} to {@code to}, both ends included.
+     * Empty when the users are not connected within the depth limit or the budget ran out.
+     */
+    public Optional<List<UUID>> shortestPath(UUID from, UUID to) {
+        if (from.equals(to)) {
+            return Optional.of(List.of(from));
+        }
+        long deadline = System.nanoTime() + budget.toNanos();
+        boolean useIndex = followGraphIndex.map(FollowGraphIndex::isReady).orElse(false);
+
+        Map<UUID, Visit> forward = new HashMap<>();
+        Map<UUID, Visit> backward = new HashMap<>();
+        forward.put(from, new Visit(null, 0));
+        backward.put(to, new Visit(null, 0));
+        List<UUID> forwardFrontier = List.of(from);
+        List<UUID> backwardFrontier = List.of(to);
+
+        for (int hops = 0; hops < maxDepth; hops++) {
+            if (forwardFrontier.isEmpty() || backwardFrontier.isEmpty()) {
+                return Optional.empty();
+            }
+            boolean expandForward = forwardFrontier.size() <= backwardFrontier.size();
+            List<UUID> frontier = expandForward ? forwardFrontier : backwardFrontier;
+            Map<UUID, Visit> own = expandForward ? forward : backward;
+            Map<UUID, Visit> other = expandForward ? backward : forward;
+
+            Map<UUID, List<UUID>> neighbours = expand(frontier, expandForward, useIndex, deadline);
+            if (neighbours == null) {
+                log.debug("Path search {} -> {} ran out of its {} budget after {} hops", from, to, budget, hops);
+                return Optional.empty();
+            }
+
+            List<UUID> next = new ArrayList<>();
+            UUID meet = null;
+            int meetDepth = Integer.MAX_VALUE;
+            for (UUID vertex : frontier) {
+                int depth = own.get(vertex).depth() + 1;
+                for (UUID neighbour : neighbours.getOrDefault(vertex, List.of())) {
+                    if (own.containsKey(neighbour)) {
+                        continue;
+                    }
+                    own.put(neighbour, new Visit(vertex, depth));
+                    next.add(neighbour);
+                    // Finish the level and keep the meeting point closest to the other end
+                    Visit seen = other.get(neighbour);
+                    if (seen != null && seen.depth() < meetDepth) {
+                        meet = neighbour;
+                        meetDepth = seen.depth();
+                    }
+                }
+            }
+            if (meet != null) {
+                return Optional.of(buildPath(meet, forward, backward));
+            }
+
+            if (expandForward) {
+                forwardFrontier = next;
+            } else {
+                backwardFrontier = next;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Neighbours of every frontier vertex, outgoing when searching forward and incoming otherwise.
+     * Returns {@code null} once the deadline has passed.
+     */
+    private Map<UUID, List<UUID>> expand(List<UUID> frontier, boolean forward, boolean useIndex, long deadline) {
+        Map<UUID, List<UUID>> neighbours = new HashMap<>(frontier.size() * 2);
+        if (useIndex) {
+            FollowGraphIndex index = followGraphIndex.get();
+            for (UUID vertex : frontier) {
+                (forward ? index.followings(vertex) : index.followers(vertex))
+                        .ifPresent(ids -> neighbours.put(vertex, ids));
+            }
+            return System.nanoTime() > deadline ? null : neighbours;
+        }
+
+        Direction direction = forward ? Direction.OUT : Direction.IN;
+        for (List<UUID> chunk : BatchUtils.partition(frontier, frontierChunkSize)) {
+            if (System.nanoTime() > deadline) {
+                return null;
+            }
+            repo.expandNeighbours(USER_LABEL, USER_KEY, chunk, FollowGraphIndex.EDGE_LABEL, direction,
+                    (vertex, neighbour) -> neighbours
+                            .computeIfAbsent(toUuid(vertex), v -> new ArrayList<>())
+                            .add(toUuid(neighbour)));
+        }
+        return System.nanoTime() > deadline ? null : neighbours;
+    }
+
+    private List<UUID> buildPath(UUID meet, Map<UUID, Visit> forward, Map<UUID, Visit> backward) {
+        LinkedList<UUID> path = new LinkedList<>();
+        for (UUID vertex = meet; vertex != null; vertex = forward.get(vertex).parent()) {
+            path.addFirst(vertex);
+        }
+        for (UUID vertex = backward.get(meet).parent(); vertex != null; vertex = backward.get(vertex).parent()) {
+            path.addLast(vertex);
+        }
+        return List.copyOf(path);
+    }
+
+    private static UUID toUuid(Object value) {
+        return value instanceof UUID uuid ? uuid : UUID.fromString(value.toString());
+    }
+
+    private record Visit(UUID parent, int depth) {}
+}
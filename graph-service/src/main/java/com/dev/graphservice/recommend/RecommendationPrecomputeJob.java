@@ -0,0 +1,41 @@
+package com.dev.graphservice.recommend;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Offline mode: periodically recomputes the recommendations of every recently active user, so
+ * their requests are served from cache instead of aggregating on the request path.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.recommendations.precompute.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class RecommendationPrecomputeJob {
+
+    private final RecommendationService recommendationService;
+
+    @Scheduled(fixedDelayString = "${app.recommendations.precompute.interval:PT10M}",
+            initialDelayString = "${app.recommendations.precompute.interval:PT10M}")
+    public void precompute() {
+        Set<UUID> users = recommendationService.activeUsers();
+        long start = System.nanoTime();
+        int failed = 0;
+        for (UUID userId : users) {
+            try {
+                recommendationService.refresh(userId);
+            } catch (RuntimeException ex) {
+                failed++;
+                log.warn("Failed to precompute recommendations for userId {}: {}", userId, ex.getMessage());
+            }
+        }
+        log.info("Precomputed recommendations for {} active users ({} failed) in {} ms",
+                users.size(), failed, (System.nanoTime() - start) / 1_000_000);
+    }
+}
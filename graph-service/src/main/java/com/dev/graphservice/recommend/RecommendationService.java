@@ -0,0 +1,137 @@
+package com.dev.graphservice.recommend;
+
+import com.dev.graphservice.core.GraphRepository;
+import com.dev.graphservice.enums.Direction;
+import com.dev.graphservice.index.FollowGraphIndex;
+import com.dev.graphservice.index.FollowGraphIndex.Candidate;
+import com.dev.graphservice.utils.BatchUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * "Who to follow" suggestions: second-degree users scored by the number of mutual connections.
+ * <p>
+ * With the {@link FollowGraphIndex} loaded the candidates are aggregated in-process over its int
+ * adjacency on a fork-join pool. Otherwise the two hops are expanded with batched
+ * {@link GraphRepository#expandNeighbours} queries and counted here, never as an ad-hoc 2-hop
+ * Cypher per request. Results are cached per user for {@code app.recommendations.ttl}.
+ * Users seen following, unfollowing or posting are tracked as active for the precompute job.
+ */
+@Slf4j
+@Service
+public class RecommendationService {
+
+    private static final String USER_LABEL = "User";
+    private static final String USER_KEY = "userId";
+
+    private final GraphRepository repo;
+    private final Optional<FollowGraphIndex> followGraphIndex;
+    private final ForkJoinPool pool;
+    private final int maxCandidates;
+    private final int expansionChunkSize;
+    private final Cache<UUID, List<Candidate>> cache;
+    private final Cache<UUID, Boolean> activeUsers;
+
+    public RecommendationService(GraphRepository repo,
+                                 Optional<FollowGraphIndex> followGraphIndex,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.recommendations.parallelism:4}") int parallelism,
+                                 @Value("${app.recommendations.max-candidates:100}") int maxCandidates,
+                                 @Value("${app.recommendations.expansion-chunk-size:1000}") int expansionChunkSize,
+                                 @Value("${app.recommendations.ttl:15m}") Duration ttl,
+                                 @Value("${app.recommendations.max-users:50000}") long maxUsers,
+                                 @Value("${app.recommendations.active-window:1h}") Duration activeWindow) {
+        this.repo = repo;
+        this.followGraphIndex = followGraphIndex;
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxCandidates = maxCandidates;
+        this.expansionChunkSize = expansionChunkSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.activeUsers = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(activeWindow)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "recommendations");
+    }
+
+    public List<Candidate> recommend(UUID userId, int size) {
+        List<Candidate> candidates = cache.get(userId, this::compute);
+        return candidates.size() <= size ? candidates : candidates.subList(0, size);
+    }
+
+    /**
+     * Recomputes and caches the recommendations of {@code userId}, bypassing any cached entry.
+     */
+    public void refresh(UUID userId) {
+        cache.put(userId, compute(userId));
+    }
+
+    public void markActive(UUID userId) {
+        activeUsers.put(userId, Boolean.TRUE);
+    }
+
+    public Set<UUID> activeUsers() {
+        return Set.copyOf(activeUsers.asMap().keySet());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private List<Candidate> compute(UUID userId) {
+        Optional<List<Candidate>> indexed = followGraphIndex
+                .flatMap(index -> index.friendsOfFriends(userId, maxCandidates, pool));
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+        if (followGraphIndex.map(FollowGraphIndex::isReady).orElse(false)) {
+            // A loaded index only misses users without any follow edge
+            return List.of();
+        }
+        return computeFromRepository(userId);
+    }
+
+    private List<Candidate> computeFromRepository(UUID userId) {
+        Set<UUID> direct = new HashSet<>();
+        repo.expandNeighbours(USER_LABEL, USER_KEY, List.of(userId), FollowGraphIndex.EDGE_LABEL, Direction.OUT,
+                (from, to) -> direct.add(toUuid(to)));
+        if (direct.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Integer> scores = new HashMap<>();
+        for (List<UUID> chunk : BatchUtils.partition(new ArrayList<>(direct), expansionChunkSize)) {
+            repo.expandNeighbours(USER_LABEL, USER_KEY, chunk, FollowGraphIndex.EDGE_LABEL, Direction.OUT,
+                    (from, to) -> {
+                        UUID candidate = toUuid(to);
+                        if (!candidate.equals(userId) && !direct.contains(candidate)) {
+                            scores.merge(candidate, 1, Integer::sum);
+                        }
+                    });
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed())
+                .limit(maxCandidates)
+                .map(e -> new Candidate(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    private static UUID toUuid(Object value) {
+        return value instanceof UUID uuid ? uuid : UUID.fromString(value.toString());
+    }
+}
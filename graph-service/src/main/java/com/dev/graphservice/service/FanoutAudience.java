@@ -0,0 +1,11 @@
+package com.dev.graphservice.service;
+
+import java.util.UUID;
+
+/**
+ * Who a post by {@code userId} reaches and how: its followers, pushed to each of them, or pulled
+ * at read time once there are at least {@code app.fanout.celebrity-threshold} of them. Shared by the
+ * notification fan-out and user-post-service's timeline fan-out so both classify an author alike.
+ */
+public record FanoutAudience(UUID userId, long followers, boolean pull) {
+}
@@ -0,0 +1,123 @@
+package com.dev.graphservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Chooses the number of recipients per push fan-out batch.
+ * <p>
+ * The size is bounded by three budgets: the serialized record must stay within
+ * {@code app.fanout.batch.target-bytes} (and well under the producer's {@code max.request.size}),
+ * notification-service should insert a batch within {@code target-insert-time}, and the result is
+ * scaled down multiplicatively while sends take longer than {@code target-send-latency}, growing
+ * back additively once they are fast again. Bytes per recipient and send latency come from the
+ * producer acknowledgments, insert time per row from the feedback notification-service reports.
+ * <p>
+ * With {@code app.fanout.batch.adaptive=false} the fixed {@code app.notification.batch-size} is used.
+ * The current choice is exported as {@code fanout.batch.size}.
+ */
+@Slf4j
+@Component
+public class FanoutBatchSizer {
+
+    // A recipient serialized as a quoted UUID plus separator, used until the first acknowledgment
+    private static final double INITIAL_BYTES_PER_RECIPIENT = 39;
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final double MIN_SCALE = 0.1;
+    private static final double DECREASE = 0.8;
+    private static final double INCREASE = 0.02;
+
+    private final boolean adaptive;
+    private final int fixedSize;
+    private final int minSize;
+    private final int maxSize;
+    private final long byteBudget;
+    private final double targetSendMillis;
+    private final double targetInsertMillis;
+
+    private double bytesPerRecipient = INITIAL_BYTES_PER_RECIPIENT;
+    private double sendMillis;
+    private double insertMillisPerRow;
+    private double scale = 1.0;
+    private volatile int current;
+
+    public FanoutBatchSizer(MeterRegistry meterRegistry,
+                            @Value("${app.fanout.batch.adaptive:true}") boolean adaptive,
+                            @Value("${app.notification.batch-size:2000}") int fixedSize,
+                            @Value("${app.fanout.batch.min-size:100}") int minSize,
+                            @Value("${app.fanout.batch.max-size:5000}") int maxSize,
+                            @Value("${app.fanout.batch.target-bytes:65536}") long targetBytes,
+                            @Value("${spring.kafka.producer.properties.max.request.size:1048576}") long maxRequestSize,
+                            @Value("${app.fanout.batch.target-send-latency:250ms}") Duration targetSendLatency,
+                            @Value("${app.fanout.batch.target-insert-time:500ms}") Duration targetInsertTime) {
+        this.adaptive = adaptive;
+        this.fixedSize = fixedSize;
+        this.minSize = minSize;
+        this.maxSize = Math.max(maxSize, minSize);
+        // Headroom for the CloudEvent envelope and record headers
+        this.byteBudget = Math.min(targetBytes, maxRequestSize * 9 / 10);
+        this.targetSendMillis = targetSendLatency.toMillis();
+        this.targetInsertMillis = targetInsertTime.toMillis();
+        this.current = adaptive ? recompute() : fixedSize;
+
+        Gauge.builder("fanout.batch.size", this, FanoutBatchSizer::batchSize)
+                .description("Recipients per push fan-out batch currently chosen")
+                .register(meterRegistry);
+        Gauge.builder("fanout.batch.bytes-per-recipient", this, s -> s.bytesPerRecipient)
+                .register(meterRegistry);
+        Gauge.builder("fanout.batch.scale", this, s -> s.scale)
+                .register(meterRegistry);
+    }
+
+    public int batchSize() {
+        return current;
+    }
+
+    /**
+     * Feedback from an acknowledged send of {@code recipients} recipients.
+     */
+    public synchronized void recordSend(int recipients, int serializedBytes, long latencyNanos) {
+        if (!adaptive || recipients == 0) {
+            return;
+        }
+        double millis = latencyNanos / 1e6;
+        bytesPerRecipient = ewma(bytesPerRecipient, (double) serializedBytes / recipients);
+        sendMillis = sendMillis == 0 ? millis : ewma(sendMillis, millis);
+        scale = sendMillis > targetSendMillis
+                ? Math.max(MIN_SCALE, scale * DECREASE)
+                : Math.min(1.0, scale + INCREASE);
+        current = recompute();
+    }
+
+    /**
+     * Insert feedback from notification-service: {@code rows} notifications written in {@code millis}.
+     */
+    public synchronized void recordInsert(long rows, long millis) {
+        if (!adaptive || rows == 0) {
+            return;
+        }
+        double perRow = (double) millis / rows;
+        insertMillisPerRow = insertMillisPerRow == 0 ? perRow : ewma(insertMillisPerRow, perRow);
+        int previous = current;
+        current = recompute();
+        if (current != previous) {
+            log.debug("Fan-out batch size {} -> {} at {} ms per inserted row", previous, current, insertMillisPerRow);
+        }
+    }
+
+    private int recompute() {
+        double byBytes = byteBudget / bytesPerRecipient;
+        double byInsert = insertMillisPerRow > 0 ? targetInsertMillis / insertMillisPerRow : Double.MAX_VALUE;
+        long size = (long) (Math.min(byBytes, byInsert) * scale);
+        return (int) Math.max(minSize, Math.min(maxSize, size));
+    }
+
+    private static double ewma(double average, double sample) {
+        return average + EWMA_WEIGHT * (sample - average);
+    }
+}
@@ -0,0 +1,57 @@
+package com.dev.graphservice.service;
+
+import com.dev.graphservice.core.GraphRepository;
+import com.dev.graphservice.model.FanoutCheckpoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stores push fan-out progress in the graph store, so a fan-out re-delivered after a crash
+ * resumes after the last checkpointed recipient instead of starting over.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FanoutCheckpointService {
+
+    private static final String KEY = "postId";
+
+    private final GraphRepository repo;
+
+    public Optional<FanoutCheckpoint> find(UUID postId) {
+        try {
+            return repo.findByProperty(FanoutCheckpoint.class, KEY, postId);
+        } catch (RuntimeException ex) {
+            // Without a checkpoint the fan-out restarts from the first recipient, consumers drop the duplicates
+            log.warn("Failed to read fan-out checkpoint of post {}: {}", postId, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void save(UUID postId, int batchSize, UUID lastRecipientId) {
+        FanoutCheckpoint checkpoint = FanoutCheckpoint.builder()
+                .postId(postId)
+                .batchSize(batchSize)
+                .lastRecipientId(lastRecipientId)
+                .updatedAt(System.currentTimeMillis())
+                .build();
+        try {
+            repo.upsertAll(FanoutCheckpoint.class, KEY, List.of(checkpoint));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to checkpoint fan-out of post {} at {}: {}", postId, lastRecipientId, ex.getMessage());
+        }
+    }
+
+    public void clear(UUID postId) {
+        try {
+            repo.deleteByProperty(FanoutCheckpoint.class, KEY, postId);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to clear fan-out checkpoint of post {}: {}", postId, ex.getMessage());
+        }
+    }
+}
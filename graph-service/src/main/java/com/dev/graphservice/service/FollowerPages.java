@@ -0,0 +1,16 @@
+package com.dev.graphservice.service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset pages over one user's followers, see {@link UserService#followerPages}.
+ */
+@FunctionalInterface
+public interface FollowerPages {
+
+    /**
+     * The next {@code limit} follower ids after {@code after}, or from the start when it is null.
+     */
+    List<UUID> after(UUID after, int limit);
+}
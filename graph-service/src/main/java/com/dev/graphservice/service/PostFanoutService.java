@@ -2,29 +2,63 @@ package com.dev.graphservice.service;
 
 import com.dev.graphservice.kafka.event.PostCreatedEvent;
 import com.dev.graphservice.kafka.event.UserNotificationEvent;
+import com.dev.graphservice.kafka.producer.FanoutPartitioner;
 import com.dev.graphservice.kafka.producer.KafkaEventProducer;
+import com.dev.graphservice.model.FanoutCheckpoint;
 import com.dev.graphservice.model.User;
-import com.dev.graphservice.utils.BatchUtils;
+import com.dev.graphservice.recommend.RecommendationService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Hybrid fan-out to the author's followers. Authors below {@code app.fanout.celebrity-threshold}
+ * followers, see {@link FanoutAudience}, get one POST-NOTIFICATION batch pushed per
+ * {@link FanoutBatchSizer#batchSize()} recipients. Larger accounts publish a single
+ * CELEBRITY-POST event instead, which the notification service stores once and merges into each
+ * reader's notifications at read time. The chosen mode travels in the event metadata and is
+ * counted in {@code fanout.posts{mode}}.
+ * <p>
+ * Push fan-outs are resumable. Recipients are read in keyset pages, from the follow index when it
+ * is loaded (see {@link UserService#followerPages}), each batch is the next
+ * {@code batchSize} followers after the last recipient of the previous one, so a batch starts at
+ * the same recipient on every attempt. Every {@code app.fanout.checkpoint.every} batches the sends
+ * are awaited and the last recipient is stored in a {@link FanoutCheckpoint}; a re-delivered post
+ * resumes after it. Each batch carries a {@code postId:lastRecipientId} dedup key, so consumers
+ * can drop batches re-sent after the checkpoint.
+ * <p>
+ * Batches are split by recipient partition, see {@link FanoutPartitioner}, so a large fan-out is
+ * consumed by every notification-service instance instead of one. How evenly it spread is
+ * recorded in {@code fanout.partition.skew}.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PostFanoutService {
 
+    public static final String MODE_PUSH = "push";
+    public static final String MODE_PULL = "pull";
+
     private final UserService userService;
     private final KafkaEventProducer kafkaEventProducer;
+    private final FanoutCheckpointService checkpointService;
+    private final FanoutPartitioner partitioner;
+    private final FanoutBatchSizer batchSizer;
+    private final RecommendationService recommendationService;
+    private final MeterRegistry meterRegistry;
 
-    @Value("${app.notification.batch-size:2000}")
-    private int batchSize;
+    @Value("${app.fanout.checkpoint.every:10}")
+    private int checkpointEvery;
 
     @Value("${app.kafka.topics.notification-events}")
     private String notificationTopic;
@@ -32,46 +66,164 @@ public class PostFanoutService {
     public void process(PostCreatedEvent postEvent, String correlationId) {
 
         log.info("Fan-out processing for Post {}", postEvent.getPostId());
+        recommendationService.markActive(postEvent.getUserId());
 
         Optional<User> postCreatedUser = userService.findByUserId(postEvent.getUserId());
 
-        List<User> followers = userService.getFollowingsByUserId(postEvent.getUserId());
+        String message = "New post from " +
+                postCreatedUser.map(User::getName).orElse("someone you follow");
 
-        if (followers.isEmpty()) {
-            log.info("No followers found for user {}", postEvent.getUserId());
+        FanoutAudience audience = userService.getFanoutAudience(postEvent.getUserId());
+        if (audience.pull()) {
+            publishCelebrityPost(postEvent, message, audience.followers(), correlationId);
+            meterRegistry.counter("fanout.posts", "mode", MODE_PULL).increment();
+            log.info("Fan-out for Post {} in {} mode, audience of {}", postEvent.getPostId(), MODE_PULL, audience.followers());
             return;
         }
+        meterRegistry.counter("fanout.posts", "mode", MODE_PUSH).increment();
+
+        // One page of followers per batch, at most checkpoint.every batches wait for the broker
+        Optional<FanoutCheckpoint> checkpoint = checkpointService.find(postEvent.getPostId());
+        // The size is fixed per fan-out, a resumed one must cut its batches exactly as before
+        int size = checkpoint.map(FanoutCheckpoint::getBatchSize).orElseGet(batchSizer::batchSize);
+        DistributionSummary.builder("fanout.batch.chosen-size").register(meterRegistry).record(size);
+        UUID after = checkpoint.map(FanoutCheckpoint::getLastRecipientId).orElse(null);
+        if (after != null) {
+            log.info("Resuming fan-out for Post {} after recipient {}", postEvent.getPostId(), after);
+        }
 
-        List<UUID> followerIds = followers.stream()
-                .map(User::getUserId)
-                .toList();
+        int partitions = partitioner.spreadsRecipients() ? kafkaEventProducer.partitionCount(notificationTopic) : 0;
+        long[] perPartition = new long[Math.max(partitions, 1)];
+
+        int followers = 0;
+        int batches = 0;
+        int unconfirmed = 0;
+        boolean checkpointed = checkpoint.isPresent();
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        FollowerPages pages = userService.followerPages(postEvent.getUserId());
+        List<UUID> batch;
+        do {
+            batch = pages.after(after, size);
+            if (batch.isEmpty()) {
+                break;
+            }
+            after = batch.get(batch.size() - 1);
+            batches++;
+            followers += batch.size();
+            publishBatch(postEvent, message, batch, partitions, perPartition, sends, correlationId);
+            if (++unconfirmed >= checkpointEvery && batch.size() == size) {
+                awaitSends(sends);
+                unconfirmed = 0;
+                checkpointService.save(postEvent.getPostId(), size, after);
+                checkpointed = true;
+            }
+        } while (batch.size() == size);
+        awaitSends(sends);
+        if (checkpointed) {
+            checkpointService.clear(postEvent.getPostId());
+        }
 
-        List<List<UUID>> batches = BatchUtils.partition(followerIds, batchSize);
+        if (followers == 0) {
+            log.info("No followers left to notify for user {}", postEvent.getUserId());
+            return;
+        }
 
-        String message = "New post from " +
-                postCreatedUser.map(User::getName).orElse("someone you follow");
+        DistributionSummary.builder("fanout.recipients").register(meterRegistry).record(followers);
+        if (partitions > 1) {
+            recordPartitionSkew(perPartition);
+        }
+        log.info("Fan-out for Post {} in {} mode completed. {} followers in {} batches",
+                postEvent.getPostId(), MODE_PUSH, followers, batches);
+    }
 
-        batches.forEach(batch -> {
-            UserNotificationEvent eventPayload = UserNotificationEvent.builder()
-                    .message(message)
-                    .actorId(postEvent.getUserId())
-                    .notifiers(batch)
-                    .postId(postEvent.getPostId())
-                    .metadata(Map.of())
-                    .build();
-
-            kafkaEventProducer.publishEvent(
-                    notificationTopic,
-                    "POST-NOTIFICATION",
-                    postEvent.getUserId().toString(),
-                    eventPayload,
-                    correlationId
-            );
+    private void publishCelebrityPost(PostCreatedEvent postEvent, String message, long audience, String correlationId) {
+        UserNotificationEvent eventPayload = UserNotificationEvent.builder()
+                .message(message)
+                .actorId(postEvent.getUserId())
+                .notifiers(List.of())
+                .postId(postEvent.getPostId())
+                .metadata(Map.of("fanoutMode", MODE_PULL, "audience", audience))
+                .build();
+
+        kafkaEventProducer.publishEvent(
+                notificationTopic,
+                "CELEBRITY-POST",
+                postEvent.getUserId().toString(),
+                eventPayload,
+                correlationId
+        );
+    }
+
+    // A failed send fails the fan-out, the record is re-delivered and resumes at the last checkpoint
+    private static void awaitSends(List<CompletableFuture<?>> sends) {
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+        sends.clear();
+    }
+
+    /**
+     * Publishes one batch, split by recipient partition when recipients are spread. Each part is
+     * deduplicated downstream by {@code postId:lastRecipientId[:partition]}, the last recipient of the
+     * whole batch.
+     */
+    private void publishBatch(PostCreatedEvent postEvent, String message, List<UUID> batch,
+                              int partitions, long[] perPartition, List<CompletableFuture<?>> sends,
+                              String correlationId) {
+        String batchKey = postEvent.getPostId() + ":" + batch.get(batch.size() - 1);
+        if (partitions == 0) {
+            perPartition[0] += batch.size();
+            sends.add(publishPart(postEvent, message, batch, null, batchKey, correlationId));
+            return;
+        }
+        FanoutPartitioner.split(batch, partitions).forEach((partition, recipients) -> {
+            perPartition[partition] += recipients.size();
+            sends.add(publishPart(postEvent, message, recipients, partition, batchKey + ":" + partition, correlationId));
         });
+    }
+
+    /**
+     * Ratio of the busiest partition's recipients to the per-partition mean, 1.0 is a perfect spread.
+     */
+    private void recordPartitionSkew(long[] perPartition) {
+        long total = 0;
+        long max = 0;
+        for (long count : perPartition) {
+            total += count;
+            max = Math.max(max, count);
+        }
+        if (total > 0) {
+            DistributionSummary.builder("fanout.partition.skew")
+                    .description("Busiest partition over mean recipients per partition, per fan-out")
+                    .register(meterRegistry)
+                    .record((double) max * perPartition.length / total);
+        }
+    }
 
-        log.info("Fan-out completed. Total {} followers in {} batches",
-                followerIds.size(),
-                batches.size());
+    private CompletableFuture<?> publishPart(PostCreatedEvent postEvent, String message, List<UUID> recipients,
+                                             Integer partition, String dedupKey, String correlationId) {
+        UserNotificationEvent eventPayload = UserNotificationEvent.builder()
+                .message(message)
+                .actorId(postEvent.getUserId())
+                .notifiers(recipients)
+                .postId(postEvent.getPostId())
+                .metadata(Map.of(
+                        "fanoutMode", MODE_PUSH,
+                        "dedupKey", dedupKey))
+                .build();
+
+        long startedAt = System.nanoTime();
+        return kafkaEventProducer.publishEvent(
+                notificationTopic,
+                partition,
+                "POST-NOTIFICATION",
+                postEvent.getUserId().toString(),
+                eventPayload,
+                correlationId
+        ).whenComplete((result, ex) -> {
+            if (ex == null) {
+                batchSizer.recordSend(recipients.size(), result.getRecordMetadata().serializedValueSize(),
+                        System.nanoTime() - startedAt);
+            }
+        });
     }
 }
 
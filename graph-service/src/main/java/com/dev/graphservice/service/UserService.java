@@ -1,11 +1,20 @@
 package com.dev.graphservice.service;
 
+import com.dev.graphservice.cache.VertexIdCache;
+import com.dev.graphservice.core.BulkWriteResult;
+import com.dev.graphservice.core.CursorPage;
 import com.dev.graphservice.core.GraphRepository;
+import com.dev.graphservice.counter.FollowCounters;
+import com.dev.graphservice.counter.FollowCounts;
 import com.dev.graphservice.exception.UserNotFoundException;
+import com.dev.graphservice.index.FollowGraphIndex;
+import com.dev.graphservice.index.FollowGraphIndex.Candidate;
 import com.dev.graphservice.kafka.event.UserCreatedEvent;
 import com.dev.graphservice.kafka.event.UserNotificationEvent;
 import com.dev.graphservice.kafka.producer.KafkaEventProducer;
 import com.dev.graphservice.model.User;
+import com.dev.graphservice.path.ShortestPathEngine;
+import com.dev.graphservice.recommend.RecommendationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.dev.graphservice.enums.Direction;
@@ -21,10 +30,21 @@ public class UserService {
 
     private final GraphRepository repo;
     private final KafkaEventProducer eventProducer;
+    private final Optional<FollowGraphIndex> followGraphIndex;
+    private final VertexIdCache vertexIdCache;
+    private final FollowCounters followCounters;
+    private final ShortestPathEngine shortestPathEngine;
+    private final RecommendationService recommendationService;
 
     @Value("${app.kafka.topics.notification-events}")
     private String notificationTopic;
 
+    @Value("${app.fanout.celebrity-threshold:10000}")
+    private long celebrityThreshold;
+
+    @Value("${graph.impl:gremlin}")
+    private String graphImpl;
+
     public User createUser(User user) {
         return repo.save(user);
     }
@@ -37,6 +57,10 @@ public class UserService {
         return repo.findAll(User.class);
     }
 
+    public CursorPage<User> getUsersPage(String cursor, int size) {
+        return repo.findPage(User.class, "userId", cursor, size);
+    }
+
     public Optional<User> findByEmail(String email) {
         return repo.findByProperty(User.class, "email", email);
     }
@@ -47,20 +71,31 @@ public class UserService {
 
     public void deleteUser(UUID id) {
         repo.deleteByProperty(User.class, "userId", id);
+        vertexIdCache.invalidate(id);
+        followCounters.remove(id);
+        followGraphIndex.ifPresent(index -> index.removeUser(id));
     }
 
     private Object getVertexIdByUserId(UUID userId) {
-        return findByUserId(userId)
+        return vertexIdCache.get(userId, id -> findByUserId(id)
                 .map(User::getId)
-                .orElseThrow(() -> new UserNotFoundException(userId));
+                .orElseThrow(() -> new UserNotFoundException(id)));
     }
 
     public void followUser(UUID fromUserUuid, UUID toUserUuid, String relationLabel, String correlationId) {
         Optional<User> fromUser = findByUserId(fromUserUuid);
         fromUser.orElseThrow(() -> new UserNotFoundException(fromUserUuid));
         Object fromVertexId = fromUser.map(User::getId).orElseThrow(() -> new RuntimeException("User not found"));;
+        vertexIdCache.put(fromUserUuid, fromVertexId);
         Object toVertexId = getVertexIdByUserId(toUserUuid);
-        repo.createEdgeBetween(fromVertexId, toVertexId, relationLabel, Direction.OUT);
+        boolean created = repo.createEdgeBetween(fromVertexId, toVertexId, relationLabel, Direction.OUT);
+        recommendationService.markActive(fromUserUuid);
+        if (FollowGraphIndex.EDGE_LABEL.equals(relationLabel)) {
+            followGraphIndex.ifPresent(index -> index.follow(fromUserUuid, toUserUuid));
+            if (created) {
+                followCounters.followed(fromUserUuid, toUserUuid);
+            }
+        }
         log.info("Created {} relation from {} -> {}", relationLabel, fromUserUuid, toUserUuid);
 
         UserNotificationEvent eventPayload = UserNotificationEvent.builder()
@@ -81,7 +116,14 @@ public class UserService {
     public void unFollowUser(UUID fromUserUuid, UUID toUserUuid, String relationLabel) {
         Object fromVertexId = getVertexIdByUserId(fromUserUuid);
         Object toVertexId = getVertexIdByUserId(toUserUuid);
-        repo.deleteEdge(fromVertexId, toVertexId, relationLabel);
+        boolean deleted = repo.deleteEdge(fromVertexId, toVertexId, relationLabel);
+        recommendationService.markActive(fromUserUuid);
+        if (FollowGraphIndex.EDGE_LABEL.equals(relationLabel)) {
+            followGraphIndex.ifPresent(index -> index.unfollow(fromUserUuid, toUserUuid));
+            if (deleted) {
+                followCounters.unfollowed(fromUserUuid, toUserUuid);
+            }
+        }
         log.info("Deleted {} relation from {} -> {}", relationLabel, fromUserUuid, toUserUuid);
     }
 
@@ -99,6 +141,140 @@ public class UserService {
         return repo.traverseOutgoing(User.class, vertexId, "following");
     }
 
+    public List<UUID> getFollowingIdsByUserId(UUID userId) {
+        try {
+            return getFollowingIds(userId);
+        } catch (RuntimeException ex) {
+            log.error("Failed to fetch following ids for userId {}: {}", userId, ex.getMessage());
+            return List.of();
+        }
+    }
+
+    public List<UUID> getFollowingIds(UUID userId) {
+        return followGraphIndex.flatMap(index -> index.followings(userId))
+                .orElseGet(() -> neighbourIds(userId, Direction.OUT));
+    }
+
+    /**
+     * Keyset pages over the followers of {@code userId} for one fan-out, in the order the graph store
+     * sorts the stored userId in. When the follow index is loaded the row is sorted once and paged in
+     * memory, otherwise every page is a {@link #getFollowerIdsAfter} query. Both sources agree on the
+     * order, so a fan-out checkpointed from one resumes correctly from the other.
+     */
+    public FollowerPages followerPages(UUID userId) {
+        Optional<List<UUID>> indexed = followGraphIndex.flatMap(index -> index.followers(userId));
+        if (indexed.isEmpty()) {
+            return (after, limit) -> getFollowerIdsAfter(userId, after, limit);
+        }
+        Comparator<UUID> order = storeOrder();
+        List<UUID> sorted = new ArrayList<>(indexed.get());
+        sorted.sort(order);
+        return (after, limit) -> {
+            int from = 0;
+            if (after != null) {
+                int pos = Collections.binarySearch(sorted, after, order);
+                from = pos >= 0 ? pos + 1 : -pos - 1;
+            }
+            return List.copyOf(sorted.subList(from, Math.min(sorted.size(), from + limit)));
+        };
+    }
+
+    /**
+     * The next {@code limit} follower ids of {@code userId} after {@code after}, a keyset page read
+     * from the graph store. Empty for unknown users.
+     */
+    public List<UUID> getFollowerIdsAfter(UUID userId, UUID after, int limit) {
+        Object vertexId;
+        try {
+            vertexId = getVertexIdByUserId(userId);
+        } catch (UserNotFoundException ex) {
+            return List.of();
+        }
+        return repo.neighbourValuesAfter(vertexId, "following", Direction.IN, "userId", after, limit).stream()
+                .map(UserService::toUuid)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public List<UUID> getFollowerIds(UUID userId) {
+        return followGraphIndex.flatMap(index -> index.followers(userId))
+                .orElseGet(() -> neighbourIds(userId, Direction.IN));
+    }
+
+    // Projects userId only, the neighbour entities are never hydrated
+    private List<UUID> neighbourIds(UUID userId, Direction direction) {
+        Object vertexId = getVertexIdByUserId(userId);
+        return repo.neighbourValues(vertexId, "following", direction, "userId").stream()
+                .map(UserService::toUuid)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Neo4j keeps userId as a string and sorts it lexically, the Gremlin stores keep the UUID itself
+    private Comparator<UUID> storeOrder() {
+        return "neo4j".equals(graphImpl)
+                ? Comparator.comparing(UUID::toString)
+                : Comparator.naturalOrder();
+    }
+
+    private static UUID toUuid(Object value) {
+        if (value instanceof UUID uuid) {
+            return uuid;
+        }
+        return value != null ? UUID.fromString(value.toString()) : null;
+    }
+
+    public FollowCounts getFollowCounts(UUID userId) {
+        return followCounters.get(userId, id -> {
+            Object vertexId = getVertexIdByUserId(id);
+            return new FollowCounts(id,
+                    repo.countEdges(vertexId, "following", Direction.IN),
+                    repo.countEdges(vertexId, "following", Direction.OUT));
+        });
+    }
+
+    /**
+     * Recipients of a post by {@code userId}, the followers {@link #getFollowerIdsAfter} pages through,
+     * and whether there are too many to push to. Unknown users have no audience.
+     */
+    public FanoutAudience getFanoutAudience(UUID userId) {
+        long followers;
+        try {
+            followers = getFollowCounts(userId).followers();
+        } catch (UserNotFoundException ex) {
+            followers = 0;
+        }
+        return new FanoutAudience(userId, followers, followers >= celebrityThreshold);
+    }
+
+    /**
+     * The subset of {@code candidates} whose posts reach {@code userId}, that is the candidates
+     * {@code userId} follows. Used to merge the posts of pull-mode authors at read time.
+     */
+    public List<UUID> filterFanoutSources(UUID userId, Collection<UUID> candidates) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        Optional<FollowGraphIndex> index = followGraphIndex.filter(FollowGraphIndex::isReady);
+        if (index.isPresent()) {
+            return candidates.stream()
+                    .filter(candidate -> index.get().follows(userId, candidate))
+                    .toList();
+        }
+        Set<UUID> wanted = new HashSet<>(candidates);
+        return neighbourIds(userId, Direction.OUT).stream()
+                .filter(wanted::contains)
+                .toList();
+    }
+
+    public Optional<List<UUID>> getConnectionPath(UUID fromUserId, UUID toUserId) {
+        return shortestPathEngine.shortestPath(fromUserId, toUserId);
+    }
+
+    public List<Candidate> getRecommendations(UUID userId, int size) {
+        return recommendationService.recommend(userId, size);
+    }
+
     public List<User> getFollowers(UUID userId) {
         Object vertexId = getVertexIdByUserId(userId);
         return repo.traverseIncoming(User.class, vertexId, "following");
@@ -109,13 +285,29 @@ public class UserService {
         return repo.traverseBoth(User.class, vertexId, "following");
     }
 
-    public void createUserFromEvent(UserCreatedEvent userEvent) {
-        User user = User.builder()
-                .userId(userEvent.getUserId())
-                .name(userEvent.getUsername())
-                .email(userEvent.getEmail())
-                .build();
-        createUser(user);
-        log.info("Created User: {}", user);
+    /**
+     * Creates the users of a batch of signup events in one bulk write. Idempotent: users are merged
+     * on userId, so replayed events update instead of duplicating, and within the batch the last
+     * event for a userId wins.
+     */
+    public BulkWriteResult createUsersFromEvents(List<UserCreatedEvent> userEvents) {
+        Map<UUID, User> users = new LinkedHashMap<>();
+        for (UserCreatedEvent userEvent : userEvents) {
+            if (userEvent.getUserId() == null) {
+                log.warn("Skipping UserCreatedEvent without userId: {}", userEvent);
+                continue;
+            }
+            users.put(userEvent.getUserId(), User.builder()
+                    .userId(userEvent.getUserId())
+                    .name(userEvent.getUsername())
+                    .email(userEvent.getEmail())
+                    .build());
+        }
+        if (users.isEmpty()) {
+            return BulkWriteResult.EMPTY;
+        }
+        BulkWriteResult result = repo.upsertAll(User.class, "userId", new ArrayList<>(users.values()));
+        log.info("Created {} users from {} events in {} ms", users.size(), userEvents.size(), result.elapsedMs());
+        return result;
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+// JanusGraph schema for graph-service, submitted by GremlinSchemaInitializer when
+// graph.schema.janusgraph-management is enabled, or run by hand in the Gremlin console.
+//
+// byUserId is a unique composite index, it backs every g.V().hasLabel('User').has('userId', ...) lookup.
+// byEmail is a plain composite index for findByEmail.
+// byPostId is a unique composite index on the FanoutCheckpoint vertices of in-flight fan-outs.
+// Indexes built on a graph that already holds User vertices start out REGISTERED and need a
+// REINDEX via mgmt.updateIndex(index, SchemaAction.REINDEX) before the planner will use them.
+
+mgmt = graph.openManagement()
+try {
+    user = mgmt.getVertexLabel('User') ?: mgmt.makeVertexLabel('User').make()
+    userId = mgmt.getPropertyKey('userId') ?: mgmt.makePropertyKey('userId').dataType(UUID.class).cardinality(Cardinality.SINGLE).make()
+    email = mgmt.getPropertyKey('email') ?: mgmt.makePropertyKey('email').dataType(String.class).cardinality(Cardinality.SINGLE).make()
+    checkpoint = mgmt.getVertexLabel('FanoutCheckpoint') ?: mgmt.makeVertexLabel('FanoutCheckpoint').make()
+    postId = mgmt.getPropertyKey('postId') ?: mgmt.makePropertyKey('postId').dataType(UUID.class).cardinality(Cardinality.SINGLE).make()
+
+    if (mgmt.getGraphIndex('byUserId') == null) {
+        mgmt.buildIndex('byUserId', Vertex.class).addKey(userId).indexOnly(user).unique().buildCompositeIndex()
+    }
+    if (mgmt.getGraphIndex('byEmail') == null) {
+        mgmt.buildIndex('byEmail', Vertex.class).addKey(email).indexOnly(user).buildCompositeIndex()
+    }
+    if (mgmt.getGraphIndex('byPostId') == null) {
+        mgmt.buildIndex('byPostId', Vertex.class).addKey(postId).indexOnly(checkpoint).unique().buildCompositeIndex()
+    }
+    mgmt.commit()
+} catch (Exception e) {
+    mgmt.rollback()
+    throw e
+}
+
+['byUserId': 'userId', 'byEmail': 'email', 'byPostId': 'postId'].each { name, key ->
+    ManagementSystem.awaitGraphIndexStatus(graph, name).status(SchemaStatus.ENABLED, SchemaStatus.REGISTERED).call()
+}
+
+status = graph.openManagement()
+try {
+    ['byUserId': 'userId', 'byEmail': 'email', 'byPostId': 'postId'].collect { name, key ->
+        name + ':' + status.getGraphIndex(name).getIndexStatus(status.getPropertyKey(key))
+    }
+} finally {
+    status.rollback()
+}
@@ -0,0 +1,111 @@
+package com.dev.graphservice.core;
+
+import com.dev.graphservice.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.data.neo4j.core.Neo4jTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class Neo4jGraphRepositoryTest {
+
+    private static final Long VERTEX_ID = 42L;
+
+    @Mock
+    private Neo4jClient neo4jClient;
+
+    @Mock
+    private Neo4jTemplate neo4jTemplate;
+
+    @Mock
+    private EntityMapper mapper;
+
+    @InjectMocks
+    private Neo4jGraphRepository repository;
+
+    private final List<User> neighbours = List.of(
+            User.builder().id(1L).userId(UUID.randomUUID()).name("a").build(),
+            User.builder().id(2L).userId(UUID.randomUUID()).name("b").build(),
+            User.builder().id(3L).userId(UUID.randomUUID()).name("c").build()
+    );
+
+    @Test
+    void traverseBothRunsOneQueryRegardlessOfNeighbourCount() {
+        when(neo4jTemplate.findAll(anyString(), anyMap(), eq(User.class))).thenReturn(neighbours);
+
+        List<User> result = repository.traverseBoth(User.class, VERTEX_ID, "following");
+
+        assertThat(result).hasSize(3);
+        assertSingleQuery();
+        assertMatchesInternalId();
+    }
+
+    @Test
+    void traverseWithDepthRunsOneQueryRegardlessOfNeighbourCount() {
+        when(neo4jTemplate.findAll(anyString(), anyMap(), eq(User.class))).thenReturn(neighbours);
+
+        List<User> result = repository.traverseWithDepth(User.class, VERTEX_ID, "following", 3);
+
+        assertThat(result).hasSize(3);
+        assertSingleQuery();
+        assertMatchesInternalId();
+    }
+
+    @Test
+    void findByPropertiesRunsOneQueryRegardlessOfMatchCount() {
+        when(neo4jTemplate.findAll(anyString(), anyMap(), eq(User.class))).thenReturn(neighbours);
+
+        List<User> result = repository.findByProperties(User.class, Map.of("name", "a"));
+
+        assertThat(result).hasSize(3);
+        assertSingleQuery();
+    }
+
+    @Test
+    void findPageSeeksTheOrderKeyOnlyAfterTheFirstPage() {
+        when(neo4jTemplate.findAll(anyString(), anyMap(), eq(User.class))).thenReturn(neighbours.subList(0, 2));
+
+        repository.findPage(User.class, "userId", null, 2);
+        repository.findPage(User.class, "userId", CursorPage.encodeCursor("a"), 2);
+
+        ArgumentCaptor<String> cypher = ArgumentCaptor.forClass(String.class);
+        verify(neo4jTemplate, times(2)).findAll(cypher.capture(), anyMap(), eq(User.class));
+        assertThat(cypher.getAllValues().get(0)).doesNotContain("$after").contains("ORDER BY n.userId");
+        assertThat(cypher.getAllValues().get(1)).contains("WHERE n.userId > $after").doesNotContain("IS NULL OR");
+    }
+
+    // UserService resolves vertices to the Long User.id, matched with id() like the other traversals
+    @SuppressWarnings("unchecked")
+    private void assertMatchesInternalId() {
+        ArgumentCaptor<String> cypher = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Map<String, Object>> params = ArgumentCaptor.forClass(Map.class);
+        verify(neo4jTemplate).findAll(cypher.capture(), params.capture(), eq(User.class));
+        assertThat(cypher.getValue()).contains("WHERE id(a) = $id").doesNotContain("elementId");
+        assertThat(params.getValue()).containsEntry("id", VERTEX_ID);
+    }
+
+    private void assertSingleQuery() {
+        verify(neo4jTemplate, times(1)).findAll(anyString(), anyMap(), eq(User.class));
+        verify(neo4jTemplate, never()).findById(any(), any());
+        verifyNoInteractions(neo4jClient);
+    }
+}
@@ -0,0 +1,136 @@
+package com.dev.graphservice.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsrAdjacencyTest {
+
+    @Test
+    void buildSortsRowsAndDropsDuplicates() {
+        int[] src = {0, 0, 0, 2, 0};
+        int[] dst = {3, 1, 3, 0, 2};
+
+        CsrAdjacency adjacency = CsrAdjacency.build(3, src, dst, src.length, 100);
+
+        assertThat(adjacency.neighbours(0)).containsExactly(1, 2, 3);
+        assertThat(adjacency.neighbours(1)).isEmpty();
+        assertThat(adjacency.neighbours(2)).containsExactly(0);
+        assertThat(adjacency.edgeCount()).isEqualTo(4);
+        assertThat(adjacency.rows()).isEqualTo(3);
+    }
+
+    @Test
+    void addMergesWithTheBaseRowInOrder() {
+        CsrAdjacency adjacency = CsrAdjacency.build(2, new int[]{0, 0}, new int[]{2, 6}, 2, 100);
+
+        assertThat(adjacency.add(0, 4)).isTrue();
+        assertThat(adjacency.add(0, 1)).isTrue();
+        assertThat(adjacency.add(0, 6)).isFalse();
+        assertThat(adjacency.add(0, 4)).isFalse();
+
+        assertThat(adjacency.neighbours(0)).containsExactly(1, 2, 4, 6);
+        assertThat(adjacency.degree(0)).isEqualTo(4);
+        assertThat(adjacency.contains(0, 4)).isTrue();
+        assertThat(adjacency.edgeCount()).isEqualTo(4);
+    }
+
+    @Test
+    void removeHidesBaseEdgesAndReAddRestoresThem() {
+        CsrAdjacency adjacency = CsrAdjacency.build(1, new int[]{0, 0, 0}, new int[]{1, 2, 3}, 3, 100);
+
+        assertThat(adjacency.remove(0, 2)).isTrue();
+        assertThat(adjacency.remove(0, 2)).isFalse();
+        assertThat(adjacency.remove(0, 9)).isFalse();
+        assertThat(adjacency.contains(0, 2)).isFalse();
+        assertThat(adjacency.neighbours(0)).containsExactly(1, 3);
+        assertThat(adjacency.degree(0)).isEqualTo(2);
+
+        assertThat(adjacency.add(0, 2)).isTrue();
+        assertThat(adjacency.neighbours(0)).containsExactly(1, 2, 3);
+        assertThat(adjacency.edgeCount()).isEqualTo(3);
+    }
+
+    @Test
+    void removeDropsEdgesStillInTheDeltaBuffer() {
+        CsrAdjacency adjacency = new CsrAdjacency(100);
+        adjacency.add(1, 5);
+
+        assertThat(adjacency.remove(1, 5)).isTrue();
+        assertThat(adjacency.contains(1, 5)).isFalse();
+        assertThat(adjacency.edgeCount()).isZero();
+    }
+
+    @Test
+    void rowsGrowWithEdgesFromNewSources() {
+        CsrAdjacency adjacency = CsrAdjacency.build(2, new int[]{0}, new int[]{1}, 1, 100);
+
+        adjacency.add(7, 0);
+
+        assertThat(adjacency.rows()).isEqualTo(8);
+        assertThat(adjacency.neighbours(7)).containsExactly(0);
+        assertThat(adjacency.neighbours(5)).isEmpty();
+    }
+
+    @Test
+    void clearReturnsAndDropsTheWholeRow() {
+        CsrAdjacency adjacency = CsrAdjacency.build(1, new int[]{0, 0}, new int[]{1, 2}, 2, 100);
+        adjacency.add(0, 3);
+
+        assertThat(adjacency.clear(0)).containsExactly(1, 2, 3);
+        assertThat(adjacency.neighbours(0)).isEmpty();
+        assertThat(adjacency.edgeCount()).isZero();
+    }
+
+    @Test
+    void compactionFoldsDeltasIntoTheBase() {
+        CsrAdjacency adjacency = CsrAdjacency.build(2, new int[]{0, 0, 1}, new int[]{1, 2, 0}, 3, 3);
+
+        adjacency.remove(0, 1);
+        adjacency.add(0, 5);
+        // Third buffered write reaches the threshold
+        adjacency.add(3, 1);
+
+        assertThat(adjacency.rows()).isEqualTo(4);
+        assertThat(adjacency.neighbours(0)).containsExactly(2, 5);
+        assertThat(adjacency.neighbours(1)).containsExactly(0);
+        assertThat(adjacency.neighbours(3)).containsExactly(1);
+        assertThat(adjacency.edgeCount()).isEqualTo(4);
+
+        // Base edges again after compaction, so removing one buffers a tombstone
+        assertThat(adjacency.remove(0, 5)).isTrue();
+        assertThat(adjacency.add(0, 2)).isFalse();
+        assertThat(adjacency.neighbours(0)).containsExactly(2);
+    }
+
+    @Test
+    void matchesASortedSetUnderRandomWrites() {
+        int rows = 40;
+        Random random = new Random(42);
+        CsrAdjacency adjacency = new CsrAdjacency(7);
+        TreeSet<Long> expected = new TreeSet<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            int src = random.nextInt(rows);
+            int dst = random.nextInt(rows);
+            long edge = (long) src << 32 | dst;
+            if (random.nextInt(3) == 0) {
+                assertThat(adjacency.remove(src, dst)).isEqualTo(expected.remove(edge));
+            } else {
+                assertThat(adjacency.add(src, dst)).isEqualTo(expected.add(edge));
+            }
+        }
+
+        for (int src = 0; src < rows; src++) {
+            int[] row = expected.subSet((long) src << 32, (long) (src + 1) << 32).stream()
+                    .mapToInt(edge -> (int) (long) edge)
+                    .toArray();
+            assertThat(adjacency.neighbours(src)).as("row %d", src).containsExactly(row);
+            assertThat(adjacency.degree(src)).isEqualTo(row.length);
+        }
+        assertThat(adjacency.edgeCount()).isEqualTo(expected.size());
+    }
+}
@@ -0,0 +1,94 @@
+package com.dev.graphservice.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FollowGraphSnapshotTest {
+
+    // Enough users for targets and deltas that need multi-byte varints
+    private static final int USERS = 300;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsIdsAndOutgoingRows() throws IOException {
+        UserIdTable ids = new UserIdTable(USERS);
+        for (int i = 0; i < USERS; i++) {
+            ids.intern(UUID.randomUUID());
+        }
+        CsrAdjacency out = CsrAdjacency.build(USERS, new int[]{0, 0, 0, 299}, new int[]{5, 299, 130, 0}, 4, 100);
+        // Pending deltas are written as part of their rows
+        out.add(42, 7);
+        out.remove(0, 130);
+
+        Path path = dir.resolve("follow-graph.snapshot");
+        FollowGraphSnapshot.write(path, FollowGraphSnapshot.encode(ids, out));
+        FollowGraphSnapshot.Loaded loaded = FollowGraphSnapshot.read(path);
+
+        assertThat(loaded.ids().size()).isEqualTo(USERS);
+        for (int id = 0; id < USERS; id++) {
+            assertThat(loaded.ids().uuidOf(id)).isEqualTo(ids.uuidOf(id));
+        }
+        assertThat(loaded.edgeCount()).isEqualTo(4);
+        assertThat(loaded.createdAt()).isPositive();
+
+        CsrAdjacency restored = CsrAdjacency.build(USERS, loaded.src(), loaded.dst(), loaded.edgeCount(), 100);
+        for (int id = 0; id < USERS; id++) {
+            assertThat(restored.neighbours(id)).as("row %d", id).containsExactly(out.neighbours(id));
+        }
+    }
+
+    @Test
+    void roundTripsAnEmptyGraph() throws IOException {
+        Path path = dir.resolve("empty.snapshot");
+        FollowGraphSnapshot.write(path, FollowGraphSnapshot.encode(new UserIdTable(0), new CsrAdjacency(100)));
+
+        FollowGraphSnapshot.Loaded loaded = FollowGraphSnapshot.read(path);
+
+        assertThat(loaded.ids().size()).isZero();
+        assertThat(loaded.edgeCount()).isZero();
+    }
+
+    @Test
+    void rejectsACorruptedSnapshot() throws IOException {
+        UserIdTable ids = new UserIdTable(2);
+        ids.intern(UUID.randomUUID());
+        ids.intern(UUID.randomUUID());
+        byte[] snapshot = FollowGraphSnapshot.encode(ids, CsrAdjacency.build(2, new int[]{0}, new int[]{1}, 1, 100));
+        snapshot[snapshot.length / 2] ^= 0x01;
+
+        Path path = dir.resolve("corrupt.snapshot");
+        Files.write(path, snapshot);
+
+        assertThatThrownBy(() -> FollowGraphSnapshot.read(path))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum mismatch");
+    }
+
+    @Test
+    void replacesAnExistingSnapshot() throws IOException {
+        Path path = dir.resolve("follow-graph.snapshot");
+        UserIdTable ids = new UserIdTable(1);
+        ids.intern(UUID.randomUUID());
+        FollowGraphSnapshot.write(path, FollowGraphSnapshot.encode(ids, new CsrAdjacency(100)));
+
+        ids.intern(UUID.randomUUID());
+        FollowGraphSnapshot.write(path, FollowGraphSnapshot.encode(ids, CsrAdjacency.build(2, new int[]{1}, new int[]{0}, 1, 100)));
+
+        FollowGraphSnapshot.Loaded loaded = FollowGraphSnapshot.read(path);
+        assertThat(loaded.ids().size()).isEqualTo(2);
+        assertThat(loaded.edgeCount()).isEqualTo(1);
+        try (var files = Files.list(dir)) {
+            assertThat(files).containsExactly(path);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.dev.graphservice.kafka.codec;
+
+import com.dev.graphservice.kafka.event.CloudEvent;
+import com.dev.graphservice.kafka.event.UserNotificationEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FanoutEventSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<UUID> recipients = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+    @Test
+    void writesJsonUnlessBinaryIsConfigured() throws Exception {
+        FanoutEventSerializer serializer = serializer(Map.of());
+        Headers headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize("notification-events", headers, event());
+
+        assertThat(contentType(headers)).isEqualTo(FanoutEventSerializer.JSON);
+        JsonNode notifiers = objectMapper.readTree(bytes).path("data").path("notifiers");
+        assertThat(notifiers.size()).isEqualTo(recipients.size());
+    }
+
+    @Test
+    void writesRecipientsAsPackedPairsAfterTheEnvelope() throws Exception {
+        FanoutEventSerializer serializer = serializer(Map.of(FanoutEventSerializer.WIRE_FORMAT_CONFIG, "binary"));
+        Headers headers = new RecordHeaders();
+
+        ByteBuffer buf = ByteBuffer.wrap(serializer.serialize("notification-events", headers, event()));
+
+        assertThat(contentType(headers)).isEqualTo(FanoutEventSerializer.BINARY);
+        assertThat(buf.getInt()).isEqualTo(FanoutEventSerializer.MAGIC);
+        byte[] envelope = new byte[buf.getInt()];
+        buf.get(envelope);
+        JsonNode data = objectMapper.readTree(envelope).path("data");
+        assertThat(data.path("message").asText()).isEqualTo("new post");
+        assertThat(data.path("notifiers").isNull() || data.path("notifiers").isMissingNode()).isTrue();
+
+        int count = buf.getInt();
+        List<UUID> decoded = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            decoded.add(new UUID(buf.getLong(), buf.getLong()));
+        }
+        assertThat(decoded).isEqualTo(recipients);
+        assertThat(buf.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void keepsEventsWithoutRecipientsAsJson() {
+        FanoutEventSerializer serializer = serializer(Map.of(FanoutEventSerializer.WIRE_FORMAT_CONFIG, "binary"));
+        Headers headers = new RecordHeaders();
+        CloudEvent<UserNotificationEvent> event = event();
+        event.getData().setNotifiers(List.of());
+
+        serializer.serialize("notification-events", headers, event);
+
+        assertThat(contentType(headers)).isEqualTo(FanoutEventSerializer.JSON);
+    }
+
+    @Test
+    void passesRawBytesThroughUntouched() {
+        FanoutEventSerializer serializer = serializer(Map.of(FanoutEventSerializer.WIRE_FORMAT_CONFIG, "binary"));
+        byte[] raw = {1, 2, 3};
+
+        assertThat(serializer.serialize("post-events-dlt", new RecordHeaders(), raw)).isSameAs(raw);
+    }
+
+    private static FanoutEventSerializer serializer(Map<String, Object> configs) {
+        FanoutEventSerializer serializer = new FanoutEventSerializer();
+        serializer.configure(configs, false);
+        return serializer;
+    }
+
+    private CloudEvent<UserNotificationEvent> event() {
+        return CloudEvent.<UserNotificationEvent>builder()
+                .id(UUID.randomUUID().toString())
+                .type("POST-NOTIFICATION")
+                .data(UserNotificationEvent.builder()
+                        .message("new post")
+                        .actorId(UUID.randomUUID())
+                        .notifiers(new ArrayList<>(recipients))
+                        .build())
+                .build();
+    }
+
+    private static String contentType(Headers headers) {
+        return new String(headers.lastHeader(FanoutEventSerializer.CONTENT_TYPE_HEADER).value(), StandardCharsets.UTF_8);
+    }
+}
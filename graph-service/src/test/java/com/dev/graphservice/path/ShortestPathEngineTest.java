@@ -0,0 +1,149 @@
+package com.dev.graphservice.path;
+
+import com.dev.graphservice.core.GraphRepository;
+import com.dev.graphservice.enums.Direction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ShortestPathEngineTest {
+
+    @Mock
+    private GraphRepository repo;
+
+    private ShortestPathEngine engine;
+
+    private final Map<UUID, List<UUID>> following = new HashMap<>();
+    private final Map<UUID, List<UUID>> followers = new HashMap<>();
+    // Direction and frontier of every expandNeighbours call, in order
+    private final List<Map.Entry<Direction, List<UUID>>> expansions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        engine = new ShortestPathEngine(repo, Optional.empty());
+        ReflectionTestUtils.setField(engine, "maxDepth", 6);
+        ReflectionTestUtils.setField(engine, "budget", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(engine, "frontierChunkSize", 1000);
+    }
+
+    @Test
+    void samePersonIsAPathOfOne() {
+        UUID a = UUID.randomUUID();
+
+        assertThat(engine.shortestPath(a, a)).contains(List.of(a));
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void followsEdgesInTheirDirectionOnly() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        follow(b, a);
+        stubGraph();
+
+        assertThat(engine.shortestPath(a, b)).isEmpty();
+        assertThat(engine.shortestPath(b, a)).contains(List.of(b, a));
+    }
+
+    @Test
+    void picksTheShorterOfTwoRoutes() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        UUID d = UUID.randomUUID();
+        UUID e = UUID.randomUUID();
+        follow(a, c);
+        follow(c, d);
+        follow(d, e);
+        follow(a, b);
+        follow(b, e);
+        stubGraph();
+
+        assertThat(engine.shortestPath(a, e)).contains(List.of(a, b, e));
+    }
+
+    @Test
+    void meetsInTheMiddleByGrowingTheSmallerFrontier() {
+        UUID from = UUID.randomUUID();
+        UUID to = UUID.randomUUID();
+        UUID bridge = UUID.randomUUID();
+        List<UUID> fanOut = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID friend = UUID.randomUUID();
+            fanOut.add(friend);
+            follow(from, friend);
+            // Dead ends the forward side would have to expand on its own
+            follow(friend, UUID.randomUUID());
+        }
+        follow(fanOut.get(3), bridge);
+        follow(bridge, to);
+        stubGraph();
+
+        assertThat(engine.shortestPath(from, to)).contains(List.of(from, fanOut.get(3), bridge, to));
+        // One forward hop makes that side wider, the backward side then walks in from the target
+        assertThat(expansions).containsExactly(
+                Map.entry(Direction.OUT, List.of(from)),
+                Map.entry(Direction.IN, List.of(to)),
+                Map.entry(Direction.IN, List.of(bridge)));
+    }
+
+    @Test
+    void givesUpBeyondTheMaximumDepth() {
+        ReflectionTestUtils.setField(engine, "maxDepth", 2);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        UUID d = UUID.randomUUID();
+        follow(a, b);
+        follow(b, c);
+        follow(c, d);
+        stubGraph();
+
+        assertThat(engine.shortestPath(a, c)).contains(List.of(a, b, c));
+        assertThat(engine.shortestPath(a, d)).isEmpty();
+    }
+
+    private void follow(UUID from, UUID to) {
+        following.computeIfAbsent(from, k -> new ArrayList<>()).add(to);
+        followers.computeIfAbsent(to, k -> new ArrayList<>()).add(from);
+    }
+
+    // Serves expansions from the in-memory graph, keys as strings like the Neo4j store returns them
+    private void stubGraph() {
+        doAnswer(invocation -> {
+            Collection<?> keys = invocation.getArgument(2);
+            Direction direction = invocation.getArgument(4);
+            BiConsumer<Object, Object> consumer = invocation.getArgument(5);
+            List<UUID> frontier = keys.stream().map(UUID.class::cast).toList();
+            expansions.add(Map.entry(direction, frontier));
+            Map<UUID, List<UUID>> edges = direction == Direction.OUT ? following : followers;
+            for (UUID vertex : frontier) {
+                for (UUID neighbour : edges.getOrDefault(vertex, List.of())) {
+                    consumer.accept(vertex.toString(), neighbour.toString());
+                }
+            }
+            return null;
+        }).when(repo).expandNeighbours(eq("User"), eq("userId"), anyCollection(), eq("following"), any(), any());
+    }
+}
@@ -0,0 +1,78 @@
+package com.dev.graphservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FanoutBatchSizerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void startsFromTheByteBudget() {
+        // 65536 bytes at the initial 39 bytes per recipient
+        assertThat(sizer(true, 65_536).batchSize()).isEqualTo(1680);
+    }
+
+    @Test
+    void keepsTheFixedSizeWhenNotAdaptive() {
+        FanoutBatchSizer sizer = sizer(false, 65_536);
+
+        sizer.recordSend(1000, 1_000_000, SLOW);
+        sizer.recordInsert(1000, 10_000);
+
+        assertThat(sizer.batchSize()).isEqualTo(2000);
+    }
+
+    @Test
+    void shrinksAsRecipientsGetLarger() {
+        FanoutBatchSizer sizer = sizer(true, 65_536);
+
+        sizer.recordSend(1000, 100_000, FAST);
+
+        // Average moves a fifth of the way from 39 to 100 bytes: 65536 / 51.2
+        assertThat(sizer.batchSize()).isEqualTo(1280);
+    }
+
+    @Test
+    void isBoundedBySlowInserts() {
+        FanoutBatchSizer sizer = sizer(true, 65_536);
+
+        sizer.recordInsert(1000, 1000);
+
+        // 500 ms insert target at 1 ms per row
+        assertThat(sizer.batchSize()).isEqualTo(500);
+    }
+
+    @Test
+    void backsOffOnSlowSendsAndRecovers() {
+        FanoutBatchSizer sizer = sizer(true, 65_536);
+        int initial = sizer.batchSize();
+
+        for (int i = 0; i < 50; i++) {
+            sizer.recordSend(initial, initial * 39, SLOW);
+        }
+        int throttled = sizer.batchSize();
+        assertThat(throttled).isLessThan(initial).isGreaterThanOrEqualTo(100);
+
+        for (int i = 0; i < 100; i++) {
+            sizer.recordSend(initial, initial * 39, FAST);
+        }
+        assertThat(sizer.batchSize()).isGreaterThan(throttled);
+    }
+
+    @Test
+    void staysWithinTheConfiguredBounds() {
+        assertThat(sizer(true, 10_000_000).batchSize()).isEqualTo(5000);
+        assertThat(sizer(true, 1_000).batchSize()).isEqualTo(100);
+    }
+
+    private static FanoutBatchSizer sizer(boolean adaptive, long targetBytes) {
+        return new FanoutBatchSizer(new SimpleMeterRegistry(), adaptive, 2000, 100, 5000, targetBytes,
+                1_048_576, Duration.ofMillis(250), Duration.ofMillis(500));
+    }
+}
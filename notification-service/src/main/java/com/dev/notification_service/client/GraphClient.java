@@ -0,0 +1,59 @@
+package com.dev.notification_service.client;
+
+import com.dev.notification_service.dto.request.FanoutFeedback;
+import com.dev.notification_service.dto.response.GraphResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Component
+public class GraphClient {
+
+    @Value("${app.graph-service-url}")
+    private String graphService;
+
+    private final WebClient webClient = WebClient.builder().build();
+
+    /**
+     * The subset of {@code candidates} whose posts fan out to {@code userId}.
+     * Empty when graph-service cannot be reached, the caller then simply merges nothing.
+     */
+    public Mono<List<UUID>> filterFanoutSources(UUID userId, Collection<UUID> candidates) {
+        return webClient.post()
+                .uri(graphService + "/api/users/{userId}/fanout-sources", userId)
+                .bodyValue(candidates)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<GraphResponse<List<UUID>>>() {})
+                .map(resp -> resp.getData() != null ? resp.getData() : List.<UUID>of())
+                .switchIfEmpty(Mono.just(List.of()))
+                .onErrorResume(e -> {
+                    log.error("Failed to fetch fan-out sources for {}: {}", userId, e.getMessage());
+                    return Mono.just(List.of());
+                });
+    }
+
+    /**
+     * Reports fan-out insert cost to graph-service. Failures are logged and dropped, the next
+     * report carries fresh numbers.
+     */
+    public Mono<Void> reportFanoutFeedback(FanoutFeedback feedback) {
+        return webClient.post()
+                .uri(graphService + "/api/users/fanout/feedback")
+                .bodyValue(feedback)
+                .retrieve()
+                .toBodilessEntity()
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Failed to report fan-out feedback: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,7 @@
+package com.dev.notification_service.dto.request;
+
+/**
+ * Insert cost of the fan-out batches processed since the last report, sent to graph-service
+ * which sizes future batches from it.
+ */
+public record FanoutFeedback(long batches, long rows, long insertMillis) {}
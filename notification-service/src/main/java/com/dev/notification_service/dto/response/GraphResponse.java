@@ -0,0 +1,10 @@
+package com.dev.notification_service.dto.response;
+
+import lombok.Data;
+
+@Data
+public class GraphResponse<T> {
+    private String status;
+    private String message;
+    private T data;
+}
@@ -0,0 +1,35 @@
+package com.dev.notification_service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A post by a high-audience author, stored once instead of one notification row per recipient.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("celebrity_posts")
+public class CelebrityPost {
+    @Id
+    @Column("post_id")
+    private UUID postId;
+
+    @Column("actor_id")
+    private UUID actorId;
+
+    @Column("message")
+    private String message;
+
+    @Column("created_at")
+    private Instant createdAt;
+}
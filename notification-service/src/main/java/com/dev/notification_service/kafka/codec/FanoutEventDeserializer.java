@@ -0,0 +1,83 @@
+package com.dev.notification_service.kafka.codec;
+
+import com.dev.notification_service.kafka.event.CloudEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads notification events in either wire format graph-service produces, picked by the
+ * {@code content-type} record header. Binary records carry the CloudEvent JSON without recipients
+ * followed by the recipients as packed (msb, lsb) long pairs, see graph-service's
+ * FanoutEventSerializer for the layout. Records without the header are JSON.
+ */
+public class FanoutEventDeserializer implements Deserializer<CloudEvent> {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String BINARY = "application/vnd.fanout.v1+binary";
+    private static final int MAGIC = 0x464E4231;
+
+    private final JsonDeserializer<CloudEvent> json;
+
+    public FanoutEventDeserializer(JsonDeserializer<CloudEvent> json) {
+        this.json = json;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public CloudEvent deserialize(String topic, byte[] data) {
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public CloudEvent deserialize(String topic, Headers headers, byte[] data) {
+        Header contentType = headers.lastHeader(CONTENT_TYPE_HEADER);
+        if (data == null || contentType == null
+                || !BINARY.equals(new String(contentType.value(), StandardCharsets.UTF_8))) {
+            return json.deserialize(topic, headers, data);
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        if (buf.remaining() < 8 || buf.getInt() != MAGIC) {
+            throw new SerializationException("Not a binary fan-out event on " + topic);
+        }
+        int envelopeLength = buf.getInt();
+        if (envelopeLength < 0 || buf.remaining() < envelopeLength + 4L) {
+            throw new SerializationException("Truncated binary fan-out event on " + topic + ": " + envelopeLength + " envelope bytes declared");
+        }
+        CloudEvent event = json.deserialize(topic, Arrays.copyOfRange(data, buf.position(), buf.position() + envelopeLength));
+        buf.position(buf.position() + envelopeLength);
+
+        int count = buf.getInt();
+        if (buf.remaining() != count * 16L) {
+            throw new SerializationException("Truncated binary fan-out event on " + topic + ": " + count + " recipients declared");
+        }
+        List<UUID> recipients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            recipients.add(new UUID(buf.getLong(), buf.getLong()));
+        }
+        if (event.getData() != null) {
+            event.getData().setNotifiers(recipients);
+        }
+        return event;
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
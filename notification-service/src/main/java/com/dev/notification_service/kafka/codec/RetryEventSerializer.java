@@ -0,0 +1,46 @@
+package com.dev.notification_service.kafka.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Serializer of the records notification-service moves to its retry and dead-letter topics.
+ * Deserialized events are written back as JSON and re-labelled {@code application/json}, whatever
+ * format they arrived in. Records that could not be deserialized arrive as their raw bytes and are
+ * forwarded untouched, with their original {@code content-type}.
+ */
+public class RetryEventSerializer implements Serializer<Object> {
+
+    private static final byte[] JSON = "application/json".getBytes(StandardCharsets.UTF_8);
+
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object value) {
+        return value instanceof byte[] raw ? raw : json.serialize(topic, value);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object value) {
+        if (value instanceof byte[] raw) {
+            return raw;
+        }
+        headers.remove(FanoutEventDeserializer.CONTENT_TYPE_HEADER);
+        headers.add(FanoutEventDeserializer.CONTENT_TYPE_HEADER, JSON);
+        return json.serialize(topic, headers, value);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -1,30 +1,78 @@
 package com.dev.notification_service.kafka.config;
 
+import com.dev.notification_service.kafka.codec.FanoutEventDeserializer;
+import com.dev.notification_service.kafka.codec.RetryEventSerializer;
 import com.dev.notification_service.kafka.event.CloudEvent;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.annotation.EnableKafkaRetryTopic;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ContainerProperties;
-import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.util.backoff.FixedBackOff;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * A failing notification event is moved off its partition at once: it goes through the retry
+ * topics {@code notification-events-retry-0..n}, with delays growing from
+ * {@code app.kafka.retry.initial-delay} by {@code multiplier} up to {@code max-delay}, and ends in
+ * {@code notification-events-dlt}. Events that cannot be deserialized go straight to the
+ * dead-letter topic. See {@link RetryTopicMetrics} for the metrics.
+ */
 @Configuration
 @EnableKafka
+@EnableKafkaRetryTopic
 public class KafkaConsumerConfig {
 
+    public static final String RETRY_SUFFIX = "-retry";
+    public static final String DLT_SUFFIX = "-dlt";
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // Consumers per instance, fan-out batches are spread over all notification-events partitions
+    @Value("${app.kafka.consumer.concurrency:3}")
+    private int concurrency;
+
+    @Value("${app.kafka.topics.notification-events}")
+    private String notificationTopic;
+
+    @Value("${app.kafka.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${app.kafka.retry.initial-delay:1s}")
+    private Duration retryInitialDelay;
+
+    @Value("${app.kafka.retry.multiplier:10}")
+    private double retryMultiplier;
+
+    @Value("${app.kafka.retry.max-delay:60s}")
+    private Duration retryMaxDelay;
+
+    @Value("${app.kafka.retry.partitions:3}")
+    private int retryPartitions;
+
+    @Value("${app.kafka.retry.replication-factor:1}")
+    private short retryReplicationFactor;
+
     @Bean
     public ConsumerFactory<String, CloudEvent> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
@@ -40,18 +88,64 @@ public class KafkaConsumerConfig {
         return new DefaultKafkaConsumerFactory<>(
                 props,
                 new StringDeserializer(),
-                new JsonDeserializer<>(CloudEvent.class)
+                new ErrorHandlingDeserializer<>(new FanoutEventDeserializer(new JsonDeserializer<>(CloudEvent.class)))
         );
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, CloudEvent> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, CloudEvent> kafkaListenerContainerFactory(
+            RetryTopicMetrics retryTopicMetrics) {
         ConcurrentKafkaListenerContainerFactory<String, CloudEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
 
         factory.setConsumerFactory(consumerFactory());
-        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 3)));
+        factory.setConcurrency(concurrency);
+        factory.setRecordInterceptor(retryTopicMetrics.retryCounter());
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
         return factory;
     }
+
+    /**
+     * Producer for the retry and dead-letter topics, the service publishes nothing else.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> retryKafkaTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                props,
+                new StringSerializer(),
+                new RetryEventSerializer()
+        ));
+    }
+
+    /**
+     * The dead-letter topic is not consumed, records stay there for inspection and replay.
+     */
+    @Bean
+    public RetryTopicConfiguration notificationRetryTopics(RetryTopicMetrics retryTopicMetrics) {
+        retryTopicMetrics.registerDeadLetterTopic(notificationTopic + DLT_SUFFIX);
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopic(notificationTopic)
+                .maxAttempts(retryAttempts)
+                .exponentialBackoff(retryInitialDelay.toMillis(), retryMultiplier, retryMaxDelay.toMillis())
+                .retryTopicSuffix(RETRY_SUFFIX)
+                .dltSuffix(DLT_SUFFIX)
+                .suffixTopicsWithIndexValues()
+                .autoCreateTopicsWith(retryPartitions, retryReplicationFactor)
+                .autoStartDltHandler(false)
+                .listenerFactory("kafkaListenerContainerFactory")
+                .create(retryKafkaTemplate());
+    }
+
+    // Resumes retry-topic partitions once their back-off has elapsed. Also runs the DLT depth
+    // refresh, which can block on the broker, so that gets a thread of its own.
+    @Bean
+    public TaskScheduler retryTopicTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("retry-topic-");
+        return scheduler;
+    }
 }
@@ -0,0 +1,107 @@
+package com.dev.notification_service.kafka.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of the retry pipeline. {@code kafka.retry.records{topic}} counts records delivered from
+ * retry topics, {@code kafka.dlt.depth{topic}} is the number of records held in a dead-letter
+ * topic. Depths are read from the broker every {@code app.kafka.retry.depth-refresh} in the
+ * background and the gauges only read the last values, so a scrape never waits on the broker.
+ * A broker that cannot be reached leaves the last known value in place.
+ */
+@Slf4j
+@Component
+public class RetryTopicMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final KafkaAdmin kafkaAdmin;
+    private final Map<String, Long> depths = new ConcurrentHashMap<>();
+    private Admin admin;
+
+    public RetryTopicMetrics(MeterRegistry meterRegistry, KafkaAdmin kafkaAdmin) {
+        this.meterRegistry = meterRegistry;
+        this.kafkaAdmin = kafkaAdmin;
+    }
+
+    public void registerDeadLetterTopic(String topic) {
+        if (depths.putIfAbsent(topic, 0L) == null) {
+            Gauge.builder("kafka.dlt.depth", depths, d -> d.getOrDefault(topic, 0L))
+                    .tag("topic", topic)
+                    .description("Records held in the dead-letter topic")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Interceptor counting the records a listener container receives from retry topics.
+     */
+    public <K, V> RecordInterceptor<K, V> retryCounter() {
+        return (record, consumer) -> {
+            if (record.topic().contains(KafkaConsumerConfig.RETRY_SUFFIX)) {
+                meterRegistry.counter("kafka.retry.records", "topic", record.topic()).increment();
+            }
+            return record;
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${app.kafka.retry.depth-refresh:PT30S}")
+    synchronized void refreshDepths() {
+        depths.keySet().forEach(this::refresh);
+    }
+
+    private void refresh(String topic) {
+        try {
+            TopicDescription description = admin().describeTopics(Set.of(topic))
+                    .allTopicNames().get(5, TimeUnit.SECONDS).get(topic);
+            Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            description.partitions().forEach(p -> {
+                earliest.put(new TopicPartition(topic, p.partition()), OffsetSpec.earliest());
+                latest.put(new TopicPartition(topic, p.partition()), OffsetSpec.latest());
+            });
+            long depth = sum(admin().listOffsets(latest).all().get(5, TimeUnit.SECONDS))
+                    - sum(admin().listOffsets(earliest).all().get(5, TimeUnit.SECONDS));
+            depths.put(topic, depth);
+        } catch (Exception ex) {
+            // Not created yet (nothing dead-lettered so far) or broker unreachable
+            log.debug("Could not read depth of {}: {}", topic, ex.getMessage());
+        }
+    }
+
+    private static long sum(Map<TopicPartition, ListOffsetsResultInfo> offsets) {
+        return offsets.values().stream().mapToLong(ListOffsetsResultInfo::offset).sum();
+    }
+
+    private Admin admin() {
+        if (admin == null) {
+            admin = Admin.create(kafkaAdmin.getConfigurationProperties());
+        }
+        return admin;
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (admin != null) {
+            admin.close(Duration.ofSeconds(5));
+        }
+    }
+}
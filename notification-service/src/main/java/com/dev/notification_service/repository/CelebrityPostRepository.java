@@ -0,0 +1,32 @@
+package com.dev.notification_service.repository;
+
+import com.dev.notification_service.entity.CelebrityPost;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface CelebrityPostRepository extends ReactiveCrudRepository<CelebrityPost, UUID> {
+
+    // Re-delivered events hit the primary key and are ignored
+    @Modifying
+    @Query("""
+            INSERT INTO celebrity_posts (post_id, actor_id, message, created_at)
+            VALUES (:postId, :actorId, :message, :createdAt)
+            ON CONFLICT (post_id) DO NOTHING
+            """)
+    Mono<Integer> insertIfAbsent(UUID postId, UUID actorId, String message, Instant createdAt);
+
+    @Query("SELECT DISTINCT actor_id FROM celebrity_posts WHERE created_at > :since")
+    Flux<UUID> findActorIdsPostingSince(Instant since);
+
+    Flux<CelebrityPost> findByActorIdInAndCreatedAtAfterOrderByCreatedAtDesc(Collection<UUID> actorIds,
+                                                                              Instant since,
+                                                                              Pageable pageable);
+}
@@ -0,0 +1,76 @@
+package com.dev.notification_service.service;
+
+import com.dev.notification_service.client.GraphClient;
+import com.dev.notification_service.dto.response.NotificationResponse;
+import com.dev.notification_service.entity.CelebrityPost;
+import com.dev.notification_service.kafka.event.UserNotificationEvent;
+import com.dev.notification_service.repository.CelebrityPostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Pull side of the hybrid fan-out. Posts by high-audience authors arrive as a single CELEBRITY-POST
+ * event and are stored once. When a user reads their notifications, the authors that posted within
+ * {@code app.celebrity-posts.read-window} are narrowed down by graph-service to those whose posts
+ * reach this user, and their recent posts are merged in as notifications.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CelebrityPostService {
+
+    public static final String EVENT_TYPE = "CELEBRITY-POST";
+
+    private final CelebrityPostRepository repository;
+    private final GraphClient graphClient;
+
+    @Value("${app.celebrity-posts.read-window:7d}")
+    private Duration readWindow;
+
+    public Mono<Void> store(UserNotificationEvent evt) {
+        return repository.insertIfAbsent(evt.getPostId(), evt.getActorId(), evt.getMessage(), Instant.now())
+                .doOnNext(inserted -> log.info("Celebrity post {} by {} stored ({} new)",
+                        evt.getPostId(), evt.getActorId(), inserted))
+                .then();
+    }
+
+    /**
+     * Up to {@code limit} recent celebrity posts reaching {@code userId}, newest first, as notifications.
+     */
+    public Mono<List<NotificationResponse>> recentFor(UUID userId, int limit) {
+        Instant since = Instant.now().minus(readWindow);
+        return repository.findActorIdsPostingSince(since)
+                .collectList()
+                .flatMap(actorIds -> actorIds.isEmpty()
+                        ? Mono.just(List.<UUID>of())
+                        : graphClient.filterFanoutSources(userId, actorIds))
+                .flatMap(sources -> sources.isEmpty()
+                        ? Mono.just(List.<NotificationResponse>of())
+                        : repository.findByActorIdInAndCreatedAtAfterOrderByCreatedAtDesc(
+                                        sources, since, PageRequest.of(0, limit))
+                                .map(post -> toResponse(userId, post))
+                                .collectList());
+    }
+
+    private NotificationResponse toResponse(UUID userId, CelebrityPost post) {
+        return NotificationResponse.builder()
+                .id(post.getPostId())
+                .userId(userId)
+                .actorId(post.getActorId())
+                .type(EVENT_TYPE)
+                .message(post.getMessage())
+                .resourceId(post.getPostId())
+                .createdAt(post.getCreatedAt())
+                .isRead(false)
+                .build();
+    }
+}
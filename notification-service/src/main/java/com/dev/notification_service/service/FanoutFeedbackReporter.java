@@ -0,0 +1,46 @@
+package com.dev.notification_service.service;
+
+import com.dev.notification_service.client.GraphClient;
+import com.dev.notification_service.dto.request.FanoutFeedback;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates how long fan-out batches take to insert and reports the totals to graph-service at
+ * most once per {@code app.fanout.feedback-interval}. The report is piggybacked on the batch that
+ * crosses the interval, so no scheduler is needed and an idle service sends nothing.
+ */
+@Component
+public class FanoutFeedbackReporter {
+
+    private final GraphClient graphClient;
+    private final long intervalNanos;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder insertNanos = new LongAdder();
+    private final AtomicLong lastReport = new AtomicLong(System.nanoTime());
+
+    public FanoutFeedbackReporter(GraphClient graphClient,
+                                  @Value("${app.fanout.feedback-interval:10s}") Duration interval) {
+        this.graphClient = graphClient;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void record(int batchRows, long nanos) {
+        batches.increment();
+        rows.add(batchRows);
+        insertNanos.add(nanos);
+
+        long last = lastReport.get();
+        long now = System.nanoTime();
+        if (now - last >= intervalNanos && lastReport.compareAndSet(last, now)) {
+            FanoutFeedback feedback = new FanoutFeedback(batches.sumThenReset(), rows.sumThenReset(),
+                    Duration.ofNanos(insertNanos.sumThenReset()).toMillis());
+            graphClient.reportFanoutFeedback(feedback).subscribe();
+        }
+    }
+}
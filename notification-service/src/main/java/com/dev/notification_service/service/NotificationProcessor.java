@@ -8,11 +8,13 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,12 +28,27 @@ import java.util.stream.Collectors;
 public class NotificationProcessor {
 
     private final NotificationRepository notificationRepository;
+    private final CelebrityPostService celebrityPostService;
+    private final FanoutFeedbackReporter feedbackReporter;
     private final ReactiveRedisTemplate<String, String> redisTemplate;
     private final ObjectMapper mapper;
 
     private final String PRESENCE_KEY = "presence:";
+    private static final String DEDUP_KEY = "fanout:dedup:";
+
+    @Value("${app.fanout.dedup-ttl:24h}")
+    private Duration dedupTtl;
 
     public void processEvent(UserNotificationEvent evt, String eventType, Acknowledgment ack) {
+        if (CelebrityPostService.EVENT_TYPE.equals(eventType)) {
+            // Stored once and merged in when readers fetch their notifications
+            celebrityPostService.store(evt)
+                    .doOnSuccess(v -> ack.acknowledge())
+                    .doOnError(err -> log.error("Celebrity post processing failed", err))
+                    .block();
+            return;
+        }
+
         List<Notification> rows = evt.getNotifiers().stream()
                 .map(receiver -> Notification.builder()
                         .userId(receiver)
@@ -44,9 +61,29 @@ public class NotificationProcessor {
                         .build())
                 .toList();
 
-        notificationRepository.saveAll(rows)
-                .collectList()
+        String dedupKey = dedupKey(evt);
+        Mono<Void> deliver = Mono.defer(() -> {
+                    long startedAt = System.nanoTime();
+                    return notificationRepository.saveAll(rows)
+                            .collectList()
+                            .doOnNext(saved -> {
+                                // Only fan-out batches feed graph-service's batch sizing
+                                if (dedupKey != null) {
+                                    feedbackReporter.record(saved.size(), System.nanoTime() - startedAt);
+                                }
+                            });
+                })
                 .flatMap(this::publishToRedis)
+                .then(markDelivered(dedupKey));
+
+        isDelivered(dedupKey)
+                .flatMap(delivered -> {
+                    if (delivered) {
+                        log.info("Batch {} already delivered, skipping re-delivered copy", dedupKey);
+                        return Mono.<Void>empty();
+                    }
+                    return deliver;
+                })
                 .doOnSuccess(v -> {
                     ack.acknowledge();
                     log.info("Notifications persisted & ACK committed successfully.");
@@ -55,6 +92,40 @@ public class NotificationProcessor {
                 .block();
     }
 
+    /**
+     * Redis key marking a fan-out batch as delivered, from the {@code postId:lastRecipientId} dedup key
+     * graph-service puts in the batch metadata. Null for events without one.
+     */
+    private String dedupKey(UserNotificationEvent evt) {
+        Object key = evt.getMetadata() != null ? evt.getMetadata().get("dedupKey") : null;
+        return key != null ? DEDUP_KEY + key : null;
+    }
+
+    // A failed lookup delivers the batch, duplicates are preferred over lost notifications
+    private Mono<Boolean> isDelivered(String dedupKey) {
+        if (dedupKey == null) {
+            return Mono.just(false);
+        }
+        return redisTemplate.hasKey(dedupKey)
+                .onErrorResume(err -> {
+                    log.warn("Dedup lookup of {} failed: {}", dedupKey, err.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    private Mono<Void> markDelivered(String dedupKey) {
+        if (dedupKey == null) {
+            return Mono.empty();
+        }
+        return redisTemplate.opsForValue()
+                .set(dedupKey, "1", dedupTtl)
+                .onErrorResume(err -> {
+                    log.warn("Failed to mark {} delivered: {}", dedupKey, err.getMessage());
+                    return Mono.just(false);
+                })
+                .then();
+    }
+
     private Mono<Void> publishToRedis(List<Notification> saved) {
 
         List<Mono<Void>> ops = new ArrayList<>();
@@ -11,6 +11,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,40 +21,81 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class NotificationQueryService {
     private final NotificationRepository repository;
+    private final CelebrityPostService celebrityPostService;
 
     public Mono<APIResponse<PaginatedResponse<NotificationResponse>>> getMyNotifications(int page, int size) {
 
         return Mono.deferContextual(ctx -> {
             UUID userId = UUID.fromString(ctx.get("userId"));
+            int window = (page + 1) * size;
 
-            PageRequest pageable = PageRequest.of(page, size);
+            return celebrityPostService.recentFor(userId, window)
+                    .flatMap(pulled -> pulled.isEmpty()
+                            ? storedPage(userId, page, size)
+                            : mergedPage(userId, page, size, pulled));
+        });
+    }
 
-            Mono<List<NotificationResponse>> listMono =
-                    repository.findByUserIdOrderByCreatedAtDesc(userId, pageable)
-                            .map(this::toResponse)
-                            .collectList();
+    private Mono<APIResponse<PaginatedResponse<NotificationResponse>>> storedPage(UUID userId, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size);
 
-            Mono<Long> countMono =
-                    repository.countByUserId(userId);
+        Mono<List<NotificationResponse>> listMono =
+                repository.findByUserIdOrderByCreatedAtDesc(userId, pageable)
+                        .map(this::toResponse)
+                        .collectList();
 
-            return Mono.zip(listMono, countMono)
-                    .map(tuple -> {
+        Mono<Long> countMono =
+                repository.countByUserId(userId);
 
-                        List<NotificationResponse> list = tuple.getT1();
-                        long total = tuple.getT2();
+        return Mono.zip(listMono, countMono)
+                .map(tuple -> {
 
-                        boolean hasNext = ((long) (page + 1) * size) < total;
+                    List<NotificationResponse> list = tuple.getT1();
+                    long total = tuple.getT2();
 
-                        return APIResponse.success(
-                                PaginatedResponse.<NotificationResponse>builder()
-                                        .items(list)
-                                        .page(page)
-                                        .size(size)
-                                        .hasNext(hasNext)
-                                        .build()
-                        );
-                    });
-        });
+                    boolean hasNext = ((long) (page + 1) * size) < total;
+
+                    return APIResponse.success(
+                            PaginatedResponse.<NotificationResponse>builder()
+                                    .items(list)
+                                    .page(page)
+                                    .size(size)
+                                    .hasNext(hasNext)
+                                    .build()
+                    );
+                });
+    }
+
+    // Both sources are read from the top down to the end of the requested page and merged by time
+    private Mono<APIResponse<PaginatedResponse<NotificationResponse>>> mergedPage(UUID userId, int page, int size,
+                                                                                   List<NotificationResponse> pulled) {
+        int window = (page + 1) * size;
+
+        Mono<List<NotificationResponse>> storedMono =
+                repository.findByUserIdOrderByCreatedAtDesc(userId, PageRequest.of(0, window))
+                        .map(this::toResponse)
+                        .collectList();
+
+        return Mono.zip(storedMono, repository.countByUserId(userId))
+                .map(tuple -> {
+
+                    List<NotificationResponse> merged = new ArrayList<>(tuple.getT1());
+                    merged.addAll(pulled);
+                    merged.sort(Comparator.comparing(NotificationResponse::getCreatedAt).reversed());
+
+                    int from = Math.min(page * size, merged.size());
+                    int to = Math.min(window, merged.size());
+                    long total = tuple.getT2() + pulled.size();
+
+                    return APIResponse.success(
+                            PaginatedResponse.<NotificationResponse>builder()
+                                    .items(List.copyOf(merged.subList(from, to)))
+                                    .page(page)
+                                    .size(size)
+                                    .hasNext(window < total)
+                                    .build()
+                    );
+                });
     }
 
     private NotificationResponse toResponse(Notification n) {
@@ -8,3 +8,16 @@ CREATE TABLE IF NOT EXISTS notifications (
     created_at TIMESTAMPTZ NOT NULL,
     is_read BOOLEAN DEFAULT FALSE
 );
+
+CREATE TABLE IF NOT EXISTS celebrity_posts (
+    post_id UUID PRIMARY KEY,
+    actor_id UUID NOT NULL,
+    message TEXT,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_celebrity_posts_actor_created
+    ON celebrity_posts (actor_id, created_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_celebrity_posts_created
+    ON celebrity_posts (created_at);
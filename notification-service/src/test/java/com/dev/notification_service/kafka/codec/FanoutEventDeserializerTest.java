@@ -0,0 +1,110 @@
+package com.dev.notification_service.kafka.codec;
+
+import com.dev.notification_service.kafka.event.CloudEvent;
+import com.dev.notification_service.kafka.event.UserNotificationEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FanoutEventDeserializerTest {
+
+    // Layout written by graph-service's FanoutEventSerializer
+    private static final int MAGIC = 0x464E4231;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FanoutEventDeserializer deserializer = new FanoutEventDeserializer(new JsonDeserializer<>(CloudEvent.class));
+
+    private final UUID actorId = UUID.randomUUID();
+    private final List<UUID> recipients = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+    @Test
+    void decodesWhatTheBinaryFormatEncodes() throws Exception {
+        CloudEvent event = deserializer.deserialize("notification-events", binaryHeaders(), encode(MAGIC));
+
+        assertThat(event.getType()).isEqualTo("POST-NOTIFICATION");
+        assertThat(event.getData().getMessage()).isEqualTo("new post");
+        assertThat(event.getData().getActorId()).isEqualTo(actorId);
+        assertThat(event.getData().getNotifiers()).isEqualTo(recipients);
+    }
+
+    @Test
+    void readsRecordsWithoutTheHeaderAsJson() throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(event(recipients));
+
+        CloudEvent event = deserializer.deserialize("notification-events", new RecordHeaders(), json);
+
+        assertThat(event.getData().getNotifiers()).isEqualTo(recipients);
+    }
+
+    @Test
+    void rejectsTruncatedRecipients() throws Exception {
+        byte[] bytes = encode(MAGIC);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 5);
+
+        assertThatThrownBy(() -> deserializer.deserialize("notification-events", binaryHeaders(), truncated))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("Truncated");
+    }
+
+    @Test
+    void rejectsATruncatedEnvelope() throws Exception {
+        byte[] truncated = Arrays.copyOf(encode(MAGIC), 20);
+
+        assertThatThrownBy(() -> deserializer.deserialize("notification-events", binaryHeaders(), truncated))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("Truncated");
+    }
+
+    @Test
+    void rejectsForeignMagic() throws Exception {
+        byte[] foreign = encode(0xCAFEBABE);
+
+        assertThatThrownBy(() -> deserializer.deserialize("notification-events", binaryHeaders(), foreign))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("Not a binary fan-out event");
+    }
+
+    private byte[] encode(int magic) throws Exception {
+        byte[] envelope = objectMapper.writeValueAsBytes(event(null));
+        ByteBuffer buf = ByteBuffer.allocate(4 + 4 + envelope.length + 4 + recipients.size() * 16);
+        buf.putInt(magic);
+        buf.putInt(envelope.length);
+        buf.put(envelope);
+        buf.putInt(recipients.size());
+        for (UUID recipient : recipients) {
+            buf.putLong(recipient.getMostSignificantBits());
+            buf.putLong(recipient.getLeastSignificantBits());
+        }
+        return buf.array();
+    }
+
+    private CloudEvent event(List<UUID> notifiers) {
+        return CloudEvent.builder()
+                .id(UUID.randomUUID().toString())
+                .type("POST-NOTIFICATION")
+                .data(UserNotificationEvent.builder()
+                        .message("new post")
+                        .actorId(actorId)
+                        .notifiers(notifiers)
+                        .build())
+                .build();
+    }
+
+    private static Headers binaryHeaders() {
+        Headers headers = new RecordHeaders();
+        headers.add(FanoutEventDeserializer.CONTENT_TYPE_HEADER, FanoutEventDeserializer.BINARY.getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+}
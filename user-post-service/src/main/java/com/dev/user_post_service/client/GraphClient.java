@@ -1,5 +1,6 @@
 package com.dev.user_post_service.client;
 
+import com.dev.user_post_service.dto.response.FanoutAudience;
 import com.dev.user_post_service.dto.response.FollowingsResponse;
 import com.dev.user_post_service.dto.response.GraphUser;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -44,4 +46,53 @@ public class GraphClient {
                     return Mono.just(List.of());
                 });
     }
+
+    /**
+     * Users following {@code userId}. Unlike {@link #getFollowings}, errors are propagated so a
+     * timeline fan-out is retried instead of silently reaching nobody.
+     */
+    public Mono<List<UUID>> getFollowers(UUID userId) {
+        return webClient.get()
+                .uri(graphService + "/api/users/followers/userId/{userId}", userId)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<FollowingsResponse<List<GraphUser>>>() {})
+                .map(resp -> resp.getData()
+                        .stream()
+                        .map(GraphUser::getUserId)
+                        .toList()
+                )
+                .switchIfEmpty(Mono.just(List.of()));
+    }
+
+    /**
+     * The follower count of {@code userId} and whether graph-service classifies it as a pull-mode
+     * author, the same decision the notification fan-out makes. Errors are propagated like
+     * {@link #getFollowers}.
+     */
+    public Mono<FanoutAudience> getFanoutAudience(UUID userId) {
+        return webClient.get()
+                .uri(graphService + "/api/users/{userId}/fanout-audience", userId)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<FollowingsResponse<FanoutAudience>>() {})
+                .mapNotNull(FollowingsResponse::getData)
+                .switchIfEmpty(Mono.error(new IllegalStateException("No fan-out audience for " + userId)));
+    }
+
+    /**
+     * The subset of {@code candidates} whose posts reach {@code userId}, that is the ones it follows.
+     * Empty when graph-service cannot be reached, the caller then simply merges nothing.
+     */
+    public Mono<List<UUID>> filterFanoutSources(UUID userId, Collection<UUID> candidates) {
+        return webClient.post()
+                .uri(graphService + "/api/users/{userId}/fanout-sources", userId)
+                .bodyValue(candidates)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<FollowingsResponse<List<UUID>>>() {})
+                .map(resp -> resp.getData() != null ? resp.getData() : List.<UUID>of())
+                .switchIfEmpty(Mono.just(List.of()))
+                .onErrorResume(e -> {
+                    log.error("Failed to fetch fan-out sources for {}: {}", userId, e.getMessage());
+                    return Mono.just(List.of());
+                });
+    }
 }
@@ -0,0 +1,28 @@
+package com.dev.user_post_service.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    @Primary
+    public ReactiveRedisTemplate<String, String> reactiveRedisTemplate(
+            ReactiveRedisConnectionFactory factory) {
+
+        RedisSerializationContext<String, String> ctx =
+                RedisSerializationContext.<String, String>newSerializationContext(
+                                new StringRedisSerializer()
+                        )
+                        .value(new StringRedisSerializer())
+                        .build();
+
+        return new ReactiveRedisTemplate<>(factory, ctx);
+    }
+}
@@ -42,10 +42,11 @@ public class PostController {
 
     @GetMapping("/feed")
     public Mono<APIResponse<PaginatedResponse<PostResponse>>> getFeed(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
-        return postService.getFeed(page, size);
+        return postService.getFeed(cursor, page, size);
     }
 
     @DeleteMapping("/{postId}")
@@ -0,0 +1,12 @@
+package com.dev.user_post_service.dto.response;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class FanoutAudience {
+    private UUID userId;
+    private long followers;
+    private boolean pull;
+}
@@ -1,5 +1,6 @@
 package com.dev.user_post_service.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
@@ -12,5 +13,6 @@ public class PaginatedResponse<T> {
     private int page;
     private int size;
     private boolean hasNext;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
-
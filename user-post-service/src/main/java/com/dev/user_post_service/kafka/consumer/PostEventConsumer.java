@@ -0,0 +1,35 @@
+package com.dev.user_post_service.kafka.consumer;
+
+import com.dev.user_post_service.kafka.event.CloudEvent;
+import com.dev.user_post_service.kafka.event.PostCreatedEvent;
+import com.dev.user_post_service.service.TimelineService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fan-out on write for home timelines: every new post is pushed into its author's followers' timelines,
+ * except for celebrity authors whose posts are merged at read time, see {@link TimelineService}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostEventConsumer {
+
+    private final TimelineService timelineService;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(
+            topics = "${app.kafka.topics.post-events}",
+            containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void consume(CloudEvent<?> event, Acknowledgment ack) {
+        PostCreatedEvent post = objectMapper.convertValue(event.getData(), PostCreatedEvent.class);
+        Long pushed = timelineService.fanOut(post).block();
+        ack.acknowledge();
+        log.info("Post {} pushed to {} timelines", post.getPostId(), pushed);
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,5 +14,11 @@ public interface PostRepository extends ReactiveCrudRepository<Post, UUID> {
     Flux<Post> findByUserIdAndIsDeletedFalseOrderByCreatedAtDesc(UUID userId, Pageable pageable);
 
     Flux<Post> findByUserIdInAndIsDeletedFalseOrderByCreatedAtDesc(List<UUID> userIds, Pageable pageable);
+
+    Flux<Post> findByUserIdInAndIsDeletedFalseAndCreatedAtBeforeOrderByCreatedAtDesc(List<UUID> userIds,
+                                                                                    Instant before,
+                                                                                    Pageable pageable);
+
+    Flux<Post> findByIdInAndIsDeletedFalse(List<UUID> ids);
 }
 
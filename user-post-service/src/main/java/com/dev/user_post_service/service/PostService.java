@@ -17,6 +17,8 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Slf4j
@@ -27,6 +29,7 @@ public class PostService {
     private final PostRepository postRepository;
     private final GraphClient graphClient;
     private final KafkaEventProducer postEventProducer;
+    private final TimelineService timelineService;
 
     @Value("${app.kafka.topics.post-events}")
     private String postEventTopic;
@@ -98,29 +101,59 @@ public class PostService {
         });
     }
 
-    public Mono<APIResponse<PaginatedResponse<PostResponse>>> getFeed(int page, int size) {
+    /**
+     * Home feed. Served from the materialized timeline when the user has one, otherwise from the
+     * database, which also schedules a rebuild of the timeline. Both return {@code millis:postId}
+     * cursors in the same order, and {@code page} skips {@code page * size} posts past the cursor
+     * (or the newest post), so a client may page either way and switch sources mid-scroll.
+     */
+    public Mono<APIResponse<PaginatedResponse<PostResponse>>> getFeed(String cursor, int page, int size) {
         return Mono.deferContextual(ctx -> {
             UUID userId = UUID.fromString(ctx.get("userId"));
 
-            return graphClient.getFollowings(userId)
-                    .flatMapMany(followingIds ->
-                            postRepository.findByUserIdInAndIsDeletedFalseOrderByCreatedAtDesc(
-                                    followingIds, PageRequest.of(page, size)
-                            )
-                    )
-                    .map(this::toResponse)
-                    .collectList()
-                    .map(list -> APIResponse.success(
-                            PaginatedResponse.<PostResponse>builder()
-                                    .items(list)
-                                    .page(page)
-                                    .size(size)
-                                    .hasNext(list.size() == size)
-                                    .build()
-                    ));
+            return timelineService.read(userId, cursor, page, size)
+                    .switchIfEmpty(Mono.defer(() -> feedFromDatabase(userId, cursor, page, size)))
+                    .flatMap(timeline -> toFeed(timeline, page, size));
         });
     }
 
+    private Mono<TimelineService.TimelinePage> feedFromDatabase(UUID userId, String cursor, int page, int size) {
+        return graphClient.getFollowings(userId)
+                .flatMap(followingIds -> {
+                    timelineService.backfill(userId, followingIds)
+                            .subscribe(null, err -> log.warn("Timeline rebuild for {} failed: {}", userId, err.getMessage()));
+                    return timelineService.readPosts(followingIds, cursor, page, size);
+                });
+    }
+
+    private Mono<APIResponse<PaginatedResponse<PostResponse>>> toFeed(TimelineService.TimelinePage timeline,
+                                                                    int page, int size) {
+        if (timeline.postIds().isEmpty()) {
+            return Mono.just(feedResponse(List.of(), page, size, false, null));
+        }
+        return postRepository.findByIdInAndIsDeletedFalse(timeline.postIds())
+                .collectMap(Post::getId)
+                .map(posts -> timeline.postIds().stream()
+                        .map(posts::get)
+                        .filter(Objects::nonNull)
+                        .map(this::toResponse)
+                        .toList())
+                .map(list -> feedResponse(list, page, size, timeline.nextCursor() != null, timeline.nextCursor()));
+    }
+
+    private APIResponse<PaginatedResponse<PostResponse>> feedResponse(List<PostResponse> list, int page, int size,
+                                                                     boolean hasNext, String nextCursor) {
+        return APIResponse.success(
+                PaginatedResponse.<PostResponse>builder()
+                        .items(list)
+                        .page(page)
+                        .size(size)
+                        .hasNext(hasNext)
+                        .nextCursor(nextCursor)
+                        .build()
+        );
+    }
+
     public Mono<APIResponse<Void>> deletePost(UUID postId) {
         return Mono.deferContextual(ctx -> {
             UUID userId = UUID.fromString(ctx.get("userId"));
@@ -0,0 +1,270 @@
+package com.dev.user_post_service.service;
+
+import com.dev.user_post_service.client.GraphClient;
+import com.dev.user_post_service.entity.Post;
+import com.dev.user_post_service.kafka.event.PostCreatedEvent;
+import com.dev.user_post_service.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Materialized home timelines: one Redis sorted set per user, post ids scored by creation time,
+ * trimmed to the newest {@code app.timeline.max-size} and expiring after {@code app.timeline.ttl}
+ * without new posts.
+ * <p>
+ * New posts are pushed only into timelines that already exist. A missing timeline is rebuilt from
+ * the database by {@link #backfill} the first time its user reads the feed, so inactive users cost
+ * nothing and a timeline is never half-built. An empty marker member keeps empty timelines present.
+ * <p>
+ * Authors graph-service classifies as pull-mode, the same ones whose notifications are pulled, are
+ * not pushed. Their latest post time is kept in a shared sorted set instead, and {@link #read}
+ * merges the posts of those active within {@code app.timeline.celebrity-read-window} that the
+ * reader follows.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private static final String KEY_PREFIX = "timeline:";
+    private static final String MARKER = "~";
+    private static final String CELEBRITIES_KEY = "timeline:celebrities";
+    // Order of ZREVRANGEBYSCORE: higher score first, equal scores in reverse member order
+    private static final Comparator<ZSetOperations.TypedTuple<String>> NEWEST_FIRST =
+            Comparator.comparing((ZSetOperations.TypedTuple<String> entry) -> entry.getScore())
+                    .thenComparing(ZSetOperations.TypedTuple::getValue)
+                    .reversed();
+    // Extra entries read past the cursor score, covering posts created in the same millisecond
+    private static final int CURSOR_SLACK = 16;
+
+    private static final RedisScript<Long> PUSH_IF_PRESENT = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[3]) + 2))
+            redis.call('EXPIRE', KEYS[1], ARGV[4])
+            return 1
+            """, Long.class);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final PostRepository postRepository;
+    private final GraphClient graphClient;
+
+    @Value("${app.timeline.max-size:800}")
+    private int maxSize;
+
+    @Value("${app.timeline.ttl:7d}")
+    private Duration ttl;
+
+    @Value("${app.timeline.fanout-concurrency:64}")
+    private int fanoutConcurrency;
+
+    @Value("${app.timeline.celebrity-read-window:7d}")
+    private Duration celebrityReadWindow;
+
+    /**
+     * Pushes the post into the existing timelines of its author's followers, returns how many were updated.
+     * Posts by pull-mode authors are only recorded for the read-time merge.
+     */
+    public Mono<Long> fanOut(PostCreatedEvent post) {
+        return graphClient.getFanoutAudience(post.getUserId())
+                .flatMap(audience -> audience.isPull()
+                        ? recordCelebrityPost(post, audience.getFollowers())
+                        : push(post));
+    }
+
+    private Mono<Long> push(PostCreatedEvent post) {
+        List<String> args = List.of(
+                String.valueOf(post.getCreatedAt().toEpochMilli()),
+                post.getPostId().toString(),
+                String.valueOf(maxSize),
+                String.valueOf(ttl.toSeconds()));
+
+        return graphClient.getFollowers(post.getUserId())
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(follower -> redisTemplate.execute(PUSH_IF_PRESENT, List.of(key(follower)), args).next(),
+                        fanoutConcurrency)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> recordCelebrityPost(PostCreatedEvent post, long followers) {
+        double expired = Instant.now().minus(celebrityReadWindow).toEpochMilli();
+        return redisTemplate.opsForZSet()
+                .add(CELEBRITIES_KEY, post.getUserId().toString(), post.getCreatedAt().toEpochMilli())
+                .then(redisTemplate.opsForZSet().removeRangeByScore(CELEBRITIES_KEY,
+                        Range.of(Range.Bound.unbounded(), Range.Bound.exclusive(expired))))
+                .doOnSuccess(removed -> log.info("Post {} by {} ({} followers) left to the read-time merge",
+                        post.getPostId(), post.getUserId(), followers))
+                .thenReturn(0L);
+    }
+
+    /**
+     * Page {@code page} of {@code size} post ids after {@code cursor}, newest first, including the
+     * posts of followed celebrities. Empty when the user has no materialized timeline and the caller
+     * must read the database through {@link #readPosts}.
+     */
+    public Mono<TimelinePage> read(UUID userId, String cursor, int page, int size) {
+        String key = key(userId);
+        Cursor after = Cursor.parse(cursor);
+        int skip = page * size;
+        int limit = skip + size + 1 + CURSOR_SLACK;
+        Range<Double> scores = after == null
+                ? Range.unbounded()
+                : Range.of(Range.Bound.unbounded(), Range.Bound.inclusive((double) after.millis()));
+
+        return redisTemplate.hasKey(key)
+                .filter(Boolean::booleanValue)
+                .flatMap(exists -> Mono.zip(
+                        redisTemplate.opsForZSet()
+                                .reverseRangeByScoreWithScores(key, scores, Limit.limit().count(limit))
+                                .filter(entry -> !MARKER.equals(entry.getValue()))
+                                .collectList(),
+                        celebrityEntries(userId, after, limit)))
+                .map(entries -> toPage(merge(entries.getT1(), entries.getT2(), after, skip + size + 1), skip, size));
+    }
+
+    /**
+     * The same page as {@link #read}, built from the latest posts of {@code authors} in the database,
+     * for users without a materialized timeline. Cursors of either source resume on the other.
+     */
+    public Mono<TimelinePage> readPosts(List<UUID> authors, String cursor, int page, int size) {
+        Cursor after = Cursor.parse(cursor);
+        int skip = page * size;
+        return latestPosts(authors, after, skip + size + 1 + CURSOR_SLACK)
+                .map(TimelineService::entry)
+                .collectList()
+                .map(entries -> toPage(merge(entries, List.of(), after, skip + size + 1), skip, size));
+    }
+
+    /**
+     * Latest posts of the celebrities {@code userId} follows, after {@code after}, as timeline entries.
+     */
+    private Mono<List<ZSetOperations.TypedTuple<String>>> celebrityEntries(UUID userId, Cursor after, int limit) {
+        double since = Instant.now().minus(celebrityReadWindow).toEpochMilli();
+        return redisTemplate.opsForZSet()
+                .rangeByScore(CELEBRITIES_KEY, Range.of(Range.Bound.inclusive(since), Range.Bound.unbounded()))
+                .map(UUID::fromString)
+                .collectList()
+                .flatMap(authors -> authors.isEmpty()
+                        ? Mono.just(List.<UUID>of())
+                        : graphClient.filterFanoutSources(userId, authors))
+                .flatMapMany(followed -> latestPosts(followed, after, limit))
+                .map(TimelineService::entry)
+                .collectList();
+    }
+
+    // Includes the cursor millisecond, merge() drops what the cursor already covered
+    private Flux<Post> latestPosts(List<UUID> authors, Cursor after, int limit) {
+        if (authors.isEmpty()) {
+            return Flux.empty();
+        }
+        return after == null
+                ? postRepository.findByUserIdInAndIsDeletedFalseOrderByCreatedAtDesc(authors, PageRequest.of(0, limit))
+                : postRepository.findByUserIdInAndIsDeletedFalseAndCreatedAtBeforeOrderByCreatedAtDesc(
+                        authors, Instant.ofEpochMilli(after.millis() + 1), PageRequest.of(0, limit));
+    }
+
+    // Backfilled timelines may already hold celebrity posts, those are kept once
+    private static List<ZSetOperations.TypedTuple<String>> merge(List<ZSetOperations.TypedTuple<String>> pushed,
+                                                                 List<ZSetOperations.TypedTuple<String>> pulled,
+                                                                 Cursor after, int limit) {
+        Map<String, ZSetOperations.TypedTuple<String>> byPost = new LinkedHashMap<>();
+        pushed.forEach(entry -> byPost.put(entry.getValue(), entry));
+        pulled.forEach(entry -> byPost.putIfAbsent(entry.getValue(), entry));
+        return byPost.values().stream()
+                .filter(entry -> after == null || after.isBefore(entry))
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Rebuilds the timeline of {@code userId} from the latest posts of the users they follow.
+     */
+    public Mono<Void> backfill(UUID userId, List<UUID> followingIds) {
+        String key = key(userId);
+        Flux<Post> posts = followingIds.isEmpty()
+                ? Flux.empty()
+                : postRepository.findByUserIdInAndIsDeletedFalseOrderByCreatedAtDesc(followingIds, PageRequest.of(0, maxSize));
+
+        return posts
+                .map(TimelineService::entry)
+                .collectList()
+                .flatMap(entries -> {
+                    List<ZSetOperations.TypedTuple<String>> all = new ArrayList<>(entries);
+                    all.add(ZSetOperations.TypedTuple.of(MARKER, 0d));
+                    return redisTemplate.opsForZSet().addAll(key, all);
+                })
+                .then(redisTemplate.expire(key, ttl))
+                .doOnSuccess(v -> log.info("Timeline of {} rebuilt from {} followings", userId, followingIds.size()))
+                .then();
+    }
+
+    private TimelinePage toPage(List<ZSetOperations.TypedTuple<String>> entries, int skip, int size) {
+        List<ZSetOperations.TypedTuple<String>> rest = entries.subList(Math.min(skip, entries.size()), entries.size());
+        boolean hasNext = rest.size() > size;
+        List<ZSetOperations.TypedTuple<String>> page = hasNext ? rest.subList(0, size) : rest;
+        List<UUID> postIds = page.stream()
+                .map(entry -> UUID.fromString(entry.getValue()))
+                .toList();
+        String next = hasNext && !page.isEmpty() ? Cursor.of(page.get(page.size() - 1)) : null;
+        return new TimelinePage(postIds, next);
+    }
+
+    private static ZSetOperations.TypedTuple<String> entry(Post post) {
+        return ZSetOperations.TypedTuple.of(post.getId().toString(), (double) post.getCreatedAt().toEpochMilli());
+    }
+
+    private static String key(UUID userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    public record TimelinePage(List<UUID> postIds, String nextCursor) {}
+
+    /**
+     * Position in a timeline, {@code millis:postId} of the last entry returned. Entries with equal
+     * scores come back in reverse member order, so "after" means a lower score or a lower member.
+     */
+    private record Cursor(long millis, String postId) {
+
+        static Cursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            int sep = cursor.indexOf(':');
+            if (sep < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new Cursor(Long.parseLong(cursor.substring(0, sep)), cursor.substring(sep + 1));
+        }
+
+        static String of(ZSetOperations.TypedTuple<String> entry) {
+            return entry.getScore().longValue() + ":" + entry.getValue();
+        }
+
+        boolean isBefore(ZSetOperations.TypedTuple<String> entry) {
+            long score = entry.getScore().longValue();
+            return score < millis || (score == millis && entry.getValue().compareTo(postId) < 0);
+        }
+    }
+}